@@ -0,0 +1,205 @@
+package battleship.bench;
+
+import battleship.core.Board;
+import battleship.core.GameConfig;
+import battleship.core.Ship;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/** Гарячі шляхи Board; запуск з -prof gc показує алокації на операцію. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"10", "20", "50", "100"})
+    public int size;
+
+    @Param({"standard", "scaled"})
+    public String fleet;
+
+    private int[] shipSizes;
+    private Random rnd;
+    private Board placed;
+    private int[] probeRow, probeCol, probeLen;
+    private boolean[] probeHoriz;
+    private int[] shotOrder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        shipSizes = GameConfig.fleet(fleet, size);
+        rnd = new Random(42);
+        placed = newPlacedBoard();
+
+        probeRow = new int[PROBES];
+        probeCol = new int[PROBES];
+        probeLen = new int[PROBES];
+        probeHoriz = new boolean[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeRow[i] = rnd.nextInt(size);
+            probeCol[i] = rnd.nextInt(size);
+            probeLen[i] = shipSizes[rnd.nextInt(shipSizes.length)];
+            probeHoriz[i] = rnd.nextBoolean();
+        }
+
+        shotOrder = new int[size * size];
+        for (int i = 0; i < shotOrder.length; i++) shotOrder[i] = i;
+        for (int i = shotOrder.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = shotOrder[i]; shotOrder[i] = shotOrder[j]; shotOrder[j] = t;
+        }
+    }
+
+    /**
+     * Записана партія AI, яку бенчмарк проходить з вікна [from, to): за виклик - постріл
+     * з запису і nextAIMove, як хід у грі, де карта оновлюється після кожного пострілу.
+     * Без пострілу nextAIMove по незмінному полю міряв би лише argmax по готовій карті.
+     * Коли вікно пройдене, поле відмотується до його початку поза вимірюванням.
+     */
+    public abstract static class Replay {
+        Board board;
+        int[] shots;
+        int from, to, next;
+
+        // AI стріляє після пострілів first, поки не виконається умова; повертає всі постріли
+        int[] play(int[] first, BooleanSupplier done) {
+            int n = board.getSize();
+            int[] log = Arrays.copyOf(first, n * n);
+            int len = first.length;
+            for (int cell : first) shootAndOpen(board, cell / n, cell % n);
+            while (!done.getAsBoolean()) {
+                Point p = board.nextAIMove();
+                shootAndOpen(board, p.x, p.y);
+                log[len++] = p.x * n + p.y;
+            }
+            return Arrays.copyOf(log, len);
+        }
+
+        @Setup(Level.Invocation)
+        public void rewind() {
+            if (next < to) return;
+            board.resetShots();
+            int n = board.getSize();
+            for (int i = 0; i < from; i++) shootAndOpen(board, shots[i] / n, shots[i] % n);
+            // карта будується тут, а не в першому вимірюваному виклику
+            board.nextAIMove();
+            next = from;
+        }
+
+        Point step() {
+            int cell = shots[next++], n = board.getSize();
+            shootAndOpen(board, cell / n, cell % n);
+            return board.nextAIMove();
+        }
+    }
+
+    /** Середина гри: вікно від половини до трьох чвертей пострілів партії AI. */
+    @State(Scope.Thread)
+    public static class MidGame extends Replay {
+        @Setup(Level.Trial)
+        public void setUp(BoardBenchmark bench) {
+            board = bench.newPlacedBoard();
+            shots = play(new int[0], board::allShipsSunk);
+            from = shots.length / 2;
+            to = Math.max(from + 1, shots.length * 3 / 4);
+            next = to;
+        }
+    }
+
+    /** Полювання: одне влучання в найдовший корабель, далі ходи AI до його потоплення. */
+    @State(Scope.Thread)
+    public static class HuntAfterHit extends Replay {
+        @Setup(Level.Trial)
+        public void setUp(BoardBenchmark bench) {
+            board = bench.newPlacedBoard();
+            int size = board.getSize();
+            Ship target = board.ships.get(0);
+            for (Ship s : board.ships) if (s.getSize() > target.getSize()) target = s;
+            shots = play(new int[]{target.cellRow(0) * size + target.cellCol(0)}, target::isSunk);
+            from = 1;
+            to = shots.length;
+            next = to;
+        }
+    }
+
+    private Board newPlacedBoard() {
+        Board b = new Board(size, shipSizes, rnd);
+        b.placeShipsRandomly(shipSizes);
+        return b;
+    }
+
+    private static void shootAndOpen(Board b, int r, int c) {
+        if (b.shoot(r, c)) {
+            Ship s = b.shipAt(r, c);
+            if (s.isSunk()) b.markAround(s);
+        }
+    }
+
+    @Benchmark
+    public Board placeShipsRandomly() {
+        Board b = new Board(size, shipSizes, rnd);
+        b.placeShipsRandomly(shipSizes);
+        return b;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void canPlace(Blackhole bh) {
+        for (int i = 0; i < PROBES; i++) bh.consume(placed.canPlace(probeRow[i], probeCol[i], probeLen[i], probeHoriz[i]));
+    }
+
+    /**
+     * Прострілює все поле у випадковому порядку; час - на все поле разом з resetShots,
+     * тобто на size * size пострілів (size - параметр, тож OperationsPerInvocation тут не задати).
+     */
+    @Benchmark
+    public void shootWholeBoard(Blackhole bh) {
+        placed.resetShots();
+        for (int i : shotOrder) bh.consume(placed.shoot(i / size, i % size));
+    }
+
+    @Benchmark
+    public Point nextAIMoveCold() {
+        placed.resetShots();
+        return placed.nextAIMove();
+    }
+
+    /** Постріл і наступний хід AI посеред гри. */
+    @Benchmark
+    public Point nextAIMoveMidGame(MidGame g) {
+        return g.step();
+    }
+
+    /** Постріл і наступний хід AI при добиванні корабля. */
+    @Benchmark
+    public Point nextAIMoveHuntAfterHit(HuntAfterHit g) {
+        return g.step();
+    }
+
+    @Benchmark
+    public boolean allShipsSunk() {
+        return placed.allShipsSunk();
+    }
+}
@@ -0,0 +1,52 @@
+package battleship.bench;
+
+import battleship.ai.Strategies;
+import battleship.core.GameConfig;
+import battleship.sim.HeadlessGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Повна гра AI проти AI без інтерфейсу, включно з розстановкою обох флотів. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+    @Param({"10", "20", "50", "100"})
+    public int size;
+
+    @Param({"standard", "scaled"})
+    public String fleet;
+
+    @Param({"optimized"})
+    public String strategy;
+
+    private HeadlessGame game;
+    private Random rnd;
+
+    @Setup
+    public void setUp() {
+        rnd = new Random(42);
+        game = new HeadlessGame(size, GameConfig.fleet(fleet, size),
+                Strategies.create(strategy, rnd), Strategies.create(strategy, rnd));
+    }
+
+    @Benchmark
+    public HeadlessGame.Result headlessGame() {
+        return game.play(rnd);
+    }
+}
@@ -0,0 +1,77 @@
+package battleship.bench;
+
+import battleship.core.Board;
+import battleship.core.GameConfig;
+import battleship.core.HeatKernel;
+import battleship.core.HeatMap;
+import battleship.core.Ship;
+import battleship.core.SplitMixRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+/** Повний перерахунок карти (HeatMap.full) скалярним і векторним ядром. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeatKernelBenchmark {
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    @Param({"10", "20", "50"})
+    public int size;
+
+    private Board opening;
+    private Board hunt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HeatKernel.use(HeatKernel.of(kernel));
+        int[] fleet = GameConfig.fleet("standard", size);
+        SplitMixRandom rnd = new SplitMixRandom(42);
+        opening = play(new Board(size, fleet, rnd), fleet, size);
+        hunt = play(new Board(size, fleet, rnd), fleet, size * size / 4);
+        // попадання без потоплення - карта рахує лише положення, що його накривають
+        for (Ship s : hunt.ships) {
+            if (!s.isSunk() && !hunt.isShot(s.getRow(), s.getCol())) {
+                hunt.shoot(s.getRow(), s.getCol());
+                break;
+            }
+        }
+    }
+
+    private static Board play(Board b, int[] fleet, int moves) {
+        b.placeShipsRandomly(fleet);
+        for (int k = 0; k < moves && !b.allShipsSunk(); k++) {
+            Point p = b.nextAIMove();
+            if (b.shoot(p.x, p.y)) {
+                Ship s = b.shipAt(p.x, p.y);
+                if (s.isSunk()) b.markAround(s);
+            }
+        }
+        return b;
+    }
+
+    @Benchmark
+    public int[] fullOpening() { return HeatMap.full(opening);
+    }
+
+    @Benchmark
+    public int[] fullHunt() { return HeatMap.full(hunt);
+    }
+}
@@ -0,0 +1,74 @@
+package battleship.bench;
+
+import battleship.core.Board;
+import battleship.core.CanonicalState;
+import battleship.core.GameConfig;
+import battleship.core.Ship;
+import battleship.core.Zobrist;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Point;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Канонічний вигляд стану поля проти звичайного хешу Зобріста (дебют і середина гри). */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SymmetryBenchmark {
+    @Param({"10", "20", "50"})
+    public int size;
+
+    private Board opening;
+    private Board midGame;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] fleet = GameConfig.fleet("standard", size);
+        Random rnd = new Random(42);
+        opening = play(new Board(size, fleet, rnd), fleet, 8);
+        midGame = play(new Board(size, fleet, rnd), fleet, size * size / 4);
+    }
+
+    private static Board play(Board b, int[] fleet, int moves) {
+        b.placeShipsRandomly(fleet);
+        for (int k = 0; k < moves && !b.allShipsSunk(); k++) {
+            Point p = b.nextAIMove();
+            if (b.shoot(p.x, p.y)) {
+                Ship s = b.shipAt(p.x, p.y);
+                if (s.isSunk()) b.markAround(s);
+            }
+        }
+        return b;
+    }
+
+    @Benchmark
+    public CanonicalState canonicalOpening() { return CanonicalState.of(opening);
+    }
+
+    @Benchmark
+    public CanonicalState canonicalMidGame() { return CanonicalState.of(midGame);
+    }
+
+    @Benchmark
+    public long zobristOpening() { return Zobrist.forSize(size).hash(opening);
+    }
+
+    @Benchmark
+    public long zobristMidGame() { return Zobrist.forSize(size).hash(midGame);
+    }
+}
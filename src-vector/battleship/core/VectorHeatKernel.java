@@ -0,0 +1,47 @@
+package battleship.core;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Ядро HeatKernel на Vector API: допустимість положень рахується AND/OR зсунутих
+ * масивів по SPECIES_PREFERRED початків одразу, внесок - векторним додаванням.
+ * Хвіст, коротший за вектор, - скалярний, тими самими формулами.
+ */
+final class VectorHeatKernel extends HeatKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() { return "vector";
+    }
+
+    @Override
+    void runs(int[] live, int[] open, boolean needCover, int size, int step, int starts, int[] p) {
+        int bound = SPECIES.loopBound(starts), i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            IntVector ok = IntVector.fromArray(SPECIES, live, i);
+            for (int k = 1; k < size; k++) ok = ok.and(IntVector.fromArray(SPECIES, live, i + k * step));
+            if (needCover) {
+                IntVector cov = IntVector.fromArray(SPECIES, open, i);
+                for (int k = 1; k < size; k++) cov = cov.or(IntVector.fromArray(SPECIES, open, i + k * step));
+                ok = ok.and(cov);
+            }
+            ok.intoArray(p, i);
+        }
+        for (; i < starts; i++) p[i] = run(live, open, needCover, size, step, i);
+    }
+
+    @Override
+    void spread(int[] p, int starts, int size, int step, int mult, int[] heat) {
+        int bound = SPECIES.loopBound(starts);
+        for (int k = 0; k < size; k++) {
+            int off = k * step, i = 0;
+            for (; i < bound; i += SPECIES.length()) {
+                IntVector v = IntVector.fromArray(SPECIES, p, i);
+                if (mult != 1) v = v.mul(mult);
+                IntVector.fromArray(SPECIES, heat, i + off).add(v).intoArray(heat, i + off);
+            }
+            for (; i < starts; i++) heat[i + off] += p[i] * mult;
+        }
+    }
+}
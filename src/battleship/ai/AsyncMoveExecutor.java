@@ -0,0 +1,109 @@
+package battleship.ai;
+
+import battleship.core.Board;
+import battleship.core.BoardSnapshot;
+import battleship.metrics.Histogram;
+
+import java.awt.Point;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Обчислює ходи стратегії у фоновому віртуальному потоці.
+ * Запит знімає незмінну копію поля, хід рахується по ній, а результат передається
+ * назад через publisher (для Swing - SwingUtilities::invokeLater). Ходи виконуються по одному,
+ * тож стратегія не мусить бути потокобезпечною. cancel() відкидає всі незавершені ходи.
+ */
+public final class AsyncMoveExecutor implements AutoCloseable {
+    private final TargetingStrategy strategy;
+    private final Executor publisher;
+    private final ExecutorService worker =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("ai-move-", 0).factory());
+    // номер поточної серії ходів; результати попередніх серій відкидаються
+    private volatile int epoch;
+    private volatile long delayMillis;
+    private Future<?> pending;
+
+    // час обчислення ходу у фоні і час, на який хід зайняв потік publisher, нс
+    private final Histogram computeNanos = new Histogram();
+    private final Histogram blockedNanos = new Histogram();
+    private volatile long lastBlockedNanos;
+    // запит зроблено з onMove: його знімок уже врахований у часі попереднього ходу
+    private boolean publishing;
+
+    public AsyncMoveExecutor(TargetingStrategy strategy, Executor publisher, long delayMillis) {
+        this.strategy = strategy;
+        this.publisher = publisher;
+        this.delayMillis = delayMillis;
+    }
+
+    /** Мінімальна пауза перед ходом (разом з обчисленням); 0 - без паузи. */
+    public void setDelayMillis(long delayMillis) { this.delayMillis = Math.max(0, delayMillis);
+    }
+    public long getDelayMillis() { return delayMillis;
+    }
+
+    /**
+     * Просить наступний хід по полю board; викликати з потоку publisher.
+     * onMove отримає хід (або null, якщо стратегія його не знайшла) у тому ж потоці.
+     */
+    public void request(Board board, Consumer<Point> onMove) {
+        long start = System.nanoTime();
+        BoardSnapshot snapshot = board.snapshot();
+        long snapshotNanos = publishing ? 0 : System.nanoTime() - start;
+        int ticket = epoch;
+        pending = worker.submit(() -> {
+            long t0 = System.nanoTime();
+            Point p = strategy.nextMove(snapshot);
+            long spent = System.nanoTime() - t0;
+            computeNanos.record(spent);
+            long wait = delayMillis - spent / 1_000_000;
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            if (ticket != epoch) return;
+            publisher.execute(() -> {
+                if (ticket != epoch) return;
+                long t1 = System.nanoTime();
+                publishing = true;
+                try {
+                    onMove.accept(p);
+                } finally {
+                    publishing = false;
+                }
+                long blocked = snapshotNanos + System.nanoTime() - t1;
+                lastBlockedNanos = blocked;
+                blockedNanos.record(blocked);
+            });
+        });
+    }
+
+    /** Відкидає незавершені ходи і готує стратегію до нової гри. */
+    public void cancel() {
+        epoch++;
+        if (pending != null) pending.cancel(true);
+        pending = null;
+        // newGame у тому ж потоці, що й ходи, щоб не змінювати стан стратегії під час обчислення
+        worker.execute(strategy::newGame);
+    }
+
+    public Histogram computeNanos() { return computeNanos;
+    }
+    public Histogram blockedNanos() { return blockedNanos;
+    }
+    public long lastBlockedNanos() { return lastBlockedNanos;
+    }
+
+    @Override
+    public void close() {
+        epoch++;
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,34 @@
+package battleship.ai;
+
+import battleship.core.BoardView;
+import battleship.core.EndgameSolver;
+
+import java.awt.Point;
+
+/**
+ * Ендшпіль за точним перебором розстановок (EndgameSolver), решта ходів - вкладеної
+ * стратегії. Якщо стан завеликий для перебору, хід теж робить вкладена стратегія.
+ */
+public final class EndgameStrategy implements TargetingStrategy {
+    private final TargetingStrategy inner;
+    private final EndgameSolver solver;
+
+    public EndgameStrategy(TargetingStrategy inner, EndgameSolver solver) {
+        this.inner = inner;
+        this.solver = solver;
+    }
+
+    public String name() { return "endgame";
+    }
+
+    public void newGame() { inner.newGame();
+    }
+
+    public void gameOver(int shots, boolean won) { inner.gameOver(shots, won);
+    }
+
+    public Point nextMove(BoardView v) {
+        Point p = solver.bestMove(v);
+        return p != null ? p : inner.nextMove(v);
+    }
+}
@@ -0,0 +1,22 @@
+package battleship.ai;
+
+import battleship.core.BoardView;
+import battleship.core.HeatMap;
+
+import java.awt.Point;
+import java.util.random.RandomGenerator;
+
+/** Поточний AI: повний перерахунок карти ймовірностей на кожному ході. */
+public final class HeatMapStrategy implements TargetingStrategy {
+    private final RandomGenerator rnd;
+
+    public HeatMapStrategy(RandomGenerator rnd) { this.rnd = rnd;
+    }
+
+    public String name() { return "heatmap";
+    }
+
+    public Point nextMove(BoardView view) {
+        return HeatMap.bestMove(HeatMap.full(view), view, rnd);
+    }
+}
@@ -0,0 +1,56 @@
+package battleship.ai;
+
+import battleship.core.BoardView;
+
+import java.awt.Point;
+import java.lang.management.ManagementFactory;
+
+/** Обгортка, що записує затримку і виділену пам'ять кожного ходу та результати ігор у StrategyMetrics. */
+public final class InstrumentedStrategy implements TargetingStrategy {
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private final TargetingStrategy delegate;
+    private final StrategyMetrics metrics;
+
+    public InstrumentedStrategy(TargetingStrategy delegate, StrategyMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean t
+                && t.isThreadAllocatedMemorySupported()) {
+            t.setThreadAllocatedMemoryEnabled(true);
+            return t;
+        }
+        return null;
+    }
+
+    public StrategyMetrics metrics() { return metrics;
+    }
+
+    public String name() { return delegate.name();
+    }
+
+    public Point nextMove(BoardView view) {
+        long bytes = THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+        long start = System.nanoTime();
+        Point p = delegate.nextMove(view);
+        metrics.latency.record(System.nanoTime() - start);
+        if (THREADS != null) metrics.allocated.record(THREADS.getCurrentThreadAllocatedBytes() - bytes);
+        metrics.moves.increment();
+        return p;
+    }
+
+    public void newGame() { delegate.newGame();
+    }
+
+    public void gameOver(int shots, boolean won) {
+        metrics.games.increment();
+        if (won) {
+            metrics.wins.increment();
+            metrics.shotsToWin.record(shots);
+        }
+        delegate.gameOver(shots, won);
+    }
+}
@@ -0,0 +1,89 @@
+package battleship.ai;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Обмежений LRU-кеш ходів за хешем стану поля, спільний для потоків симуляції.
+ * Розбитий на сегменти з окремими блокуваннями, тож потоки рідко чекають один на одного.
+ * Один кеш - для однієї детермінованої стратегії, розміру поля і флоту.
+ */
+public final class MoveCache {
+    private static final int STRIPES = 16;
+
+    private final Segment[] segments = new Segment[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MoveCache(int capacity) {
+        int perSegment = Math.max(1, capacity / STRIPES);
+        for (int i = 0; i < STRIPES; i++) segments[i] = new Segment(perSegment);
+    }
+
+    private Segment segment(long key) { return segments[(int) (key ^ key >>> 32) & (STRIPES - 1)];
+    }
+
+    /** Клітина для стану або -1. */
+    public int get(long key) {
+        Segment s = segment(key);
+        Integer cell;
+        synchronized (s) {
+            cell = s.get(key);
+        }
+        if (cell == null) {
+            misses.increment();
+            return -1;
+        }
+        hits.increment();
+        return cell;
+    }
+
+    public void put(long key, int cell) {
+        Segment s = segment(key);
+        synchronized (s) {
+            s.put(key, cell);
+        }
+    }
+
+    public long hits() { return hits.sum();
+    }
+    public long misses() { return misses.sum();
+    }
+    public long evictions() { return evictions.sum();
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                total += s.size();
+            }
+        }
+        return total;
+    }
+
+    public String metrics() {
+        long h = hits(), total = h + misses();
+        return String.format("move cache: %d entries, hits %d, misses %d (%.1f%% hit), evictions %d",
+                size(), h, misses(), total == 0 ? 0 : h * 100.0 / total, evictions());
+    }
+
+    // порядок доступу: найдавніше використаний запис витісняється першим
+    private final class Segment extends LinkedHashMap<Long, Integer> {
+        final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+            if (size() <= capacity) return false;
+            evictions.increment();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package battleship.ai;
+
+import battleship.core.BoardView;
+import battleship.core.OpeningBook;
+import battleship.core.Zobrist;
+
+import java.awt.Point;
+
+/**
+ * Стратегія карти ймовірностей з дебютною книгою: перші book.depth ходів гри беруться з книги
+ * без підрахунку карти. Ще стільки ж ходів після книги шукаються в спільному кеші
+ * станів і лише потім рахуються вкладеною стратегією. Вкладена стратегія має бути
+ * детермінованою (heatmap або optimized) - інакше книга змінить її ходи.
+ */
+public final class OpeningBookStrategy implements TargetingStrategy {
+    private final TargetingStrategy inner;
+    private final OpeningBook book;
+    private final MoveCache cache;
+    // ходи цієї гри; після промаху книги вона вже не знадобиться до кінця гри
+    private int moves;
+    private int lastShots;
+    private boolean outOfBook;
+
+    public OpeningBookStrategy(TargetingStrategy inner, OpeningBook book, MoveCache cache) {
+        this.inner = inner;
+        this.book = book;
+        this.cache = cache;
+    }
+
+    public String name() { return inner.name();
+    }
+
+    public void newGame() {
+        moves = 0;
+        lastShots = 0;
+        outOfBook = false;
+        inner.newGame();
+    }
+
+    public void gameOver(int shots, boolean won) { inner.gameOver(shots, won);
+    }
+
+    public Point nextMove(BoardView v) {
+        // поле очистили без newGame
+        if (v.shotCount() < lastShots) newGame();
+        lastShots = v.shotCount();
+        int move = moves++;
+        if (!outOfBook && move < book.depth && book.matches(v)) {
+            Point p = book.move(v);
+            if (p != null) return p;
+            outOfBook = true;
+        }
+        if (cache == null || move >= 2 * book.depth) return inner.nextMove(v);
+        int n = v.getSize();
+        long key = Zobrist.forSize(n).hash(v);
+        int cell = cache.get(key);
+        if (cell >= 0 && !v.shotMask().get(cell)) return new Point(cell / n, cell % n);
+        Point p = inner.nextMove(v);
+        if (p != null) cache.put(key, p.x * n + p.y);
+        return p;
+    }
+}
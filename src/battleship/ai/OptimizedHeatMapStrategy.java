@@ -0,0 +1,74 @@
+package battleship.ai;
+
+import battleship.core.BitGrid;
+import battleship.core.BoardView;
+import battleship.core.HeatMap;
+
+import java.awt.Point;
+import java.util.random.RandomGenerator;
+
+/**
+ * Ті самі ходи, що й HeatMapStrategy, але карта оновлюється інкрементально:
+ * між ходами стратегія дочитує журнал пострілів поля і передає зміни в HeatMap.
+ */
+public final class OptimizedHeatMapStrategy implements TargetingStrategy {
+    private final RandomGenerator rnd;
+    // поле і покоління, за якими побудована карта (знімки одного поля теж підходять)
+    private Object source;
+    private int generation;
+    private HeatMap heat;
+    private int seen;
+    // потоплені клітини, вже передані в HeatMap
+    private BitGrid sunkSeen;
+
+    public OptimizedHeatMapStrategy(RandomGenerator rnd) { this.rnd = rnd;
+    }
+
+    public String name() { return "optimized";
+    }
+
+    public void newGame() {
+        source = null;
+        heat = null;
+    }
+
+    public Point nextMove(BoardView v) {
+        sync(v);
+        return heat.bestMove(v, rnd);
+    }
+
+    private void sync(BoardView v) {
+        if (heat == null || v.source() != source || v.generation() != generation || v.shotCount() < seen) {
+            source = v.source();
+            generation = v.generation();
+            heat = HeatMap.of(v);
+            seen = v.shotCount();
+            sunkSeen = v.sunkMask().copy();
+            return;
+        }
+        int n = v.getSize();
+        BitGrid hit = v.hitMask(), sunk = v.sunkMask();
+        int from = seen;
+        for (; seen < v.shotCount(); seen++) {
+            int cell = v.shotAt(seen);
+            if (hit.get(cell)) heat.onHit(cell);
+            else heat.onMiss(cell);
+        }
+        // кораблі, потоплені новими пострілами: відновлюємо їх за потопленими клітинами
+        for (int k = from; k < seen; k++) {
+            int cell = v.shotAt(k);
+            if (!sunk.get(cell) || sunkSeen.get(cell)) continue;
+            int r = cell / n, c = cell % n;
+            int c0 = c, c1 = c, r0 = r, r1 = r;
+            while (c0 > 0 && sunk.get(r * n + c0 - 1)) c0--;
+            while (c1 + 1 < n && sunk.get(r * n + c1 + 1)) c1++;
+            while (r0 > 0 && sunk.get((r0 - 1) * n + c)) r0--;
+            while (r1 + 1 < n && sunk.get((r1 + 1) * n + c)) r1++;
+            boolean horiz = c1 > c0;
+            int size = horiz ? c1 - c0 + 1 : r1 - r0 + 1;
+            int row = horiz ? r : r0, col = horiz ? c0 : c;
+            for (int j = 0; j < size; j++) sunkSeen.set(horiz ? row * n + col + j : (row + j) * n + col);
+            heat.onSunk(row, col, size, horiz);
+        }
+    }
+}
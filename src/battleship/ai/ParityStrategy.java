@@ -0,0 +1,89 @@
+package battleship.ai;
+
+import battleship.core.BitGrid;
+import battleship.core.BoardView;
+
+import java.awt.Point;
+import java.util.random.RandomGenerator;
+
+/**
+ * Класичне полювання/добивання. Поки немає непотоплених попадань - випадкова клітина
+ * з кроком найменшого корабля, що лишився. Після попадання - сусідні клітини,
+ * а після двох попадань в ряд - продовження цієї лінії.
+ */
+public final class ParityStrategy implements TargetingStrategy {
+    private static final int[] DR = {-1, 1, 0, 0};
+    private static final int[] DC = {0, 0, -1, 1};
+
+    private final RandomGenerator rnd;
+
+    public ParityStrategy(RandomGenerator rnd) { this.rnd = rnd;
+    }
+
+    public String name() { return "parity";
+    }
+
+    public Point nextMove(BoardView view) {
+        Point p = target(view);
+        return p != null ? p : hunt(view);
+    }
+
+    private Point target(BoardView view) {
+        int n = view.getSize();
+        BitGrid hit = view.hitMask(), sunk = view.sunkMask(), shot = view.shotMask();
+        for (int i = hit.nextSetBit(0); i >= 0; i = hit.nextSetBit(i + 1)) {
+            if (sunk.get(i)) continue;
+            int r = i / n, c = i % n;
+            // лінія попадань через клітину: продовжуємо її в обидва боки
+            boolean horiz = c > 0 && open(view, r, c - 1) || c + 1 < n && open(view, r, c + 1);
+            boolean vert = r > 0 && open(view, r - 1, c) || r + 1 < n && open(view, r + 1, c);
+            if (horiz || vert) {
+                int dr = horiz ? 0 : 1, dc = horiz ? 1 : 0;
+                int r0 = r, c0 = c, r1 = r, c1 = c;
+                while (inside(n, r0 - dr, c0 - dc) && open(view, r0 - dr, c0 - dc)) { r0 -= dr; c0 -= dc; }
+                while (inside(n, r1 + dr, c1 + dc) && open(view, r1 + dr, c1 + dc)) { r1 += dr; c1 += dc; }
+                boolean before = inside(n, r0 - dr, c0 - dc) && !shot.get((r0 - dr) * n + c0 - dc);
+                boolean after = inside(n, r1 + dr, c1 + dc) && !shot.get((r1 + dr) * n + c1 + dc);
+                if (before && (!after || rnd.nextBoolean())) return new Point(r0 - dr, c0 - dc);
+                if (after) return new Point(r1 + dr, c1 + dc);
+                continue;
+            }
+            int start = rnd.nextInt(4);
+            for (int k = 0; k < 4; k++) {
+                int d = (start + k) & 3;
+                int nr = r + DR[d], nc = c + DC[d];
+                if (inside(n, nr, nc) && !shot.get(nr * n + nc)) return new Point(nr, nc);
+            }
+        }
+        return null;
+    }
+
+    private Point hunt(BoardView view) {
+        int n = view.getSize();
+        BitGrid shot = view.shotMask();
+        int step = Integer.MAX_VALUE;
+        for (int size : view.remainingShipSizes()) step = Math.min(step, size);
+        if (step == Integer.MAX_VALUE) step = 1;
+
+        int cand = 0, free = 0;
+        for (int i = 0; i < n * n; i++) {
+            if (shot.get(i)) continue;
+            free++;
+            if ((i / n + i % n) % step == 0) cand++;
+        }
+        if (free == 0) return null;
+        boolean parity = cand > 0;
+        int k = rnd.nextInt(parity ? cand : free);
+        for (int i = 0; i < n * n; i++) {
+            if (shot.get(i) || parity && (i / n + i % n) % step != 0) continue;
+            if (k-- == 0) return new Point(i / n, i % n);
+        }
+        return null;
+    }
+
+    private static boolean inside(int n, int r, int c) { return r >= 0 && r < n && c >= 0 && c < n;
+    }
+
+    private static boolean open(BoardView view, int r, int c) { return view.isHit(r, c) && !view.isSunk(r, c);
+    }
+}
@@ -0,0 +1,35 @@
+package battleship.ai;
+
+import battleship.core.BitGrid;
+import battleship.core.BoardView;
+
+import java.awt.Point;
+import java.util.random.RandomGenerator;
+
+/** Випадкова непрострілена клітина - нижня межа для порівняння. */
+public final class RandomStrategy implements TargetingStrategy {
+    private final RandomGenerator rnd;
+
+    public RandomStrategy(RandomGenerator rnd) { this.rnd = rnd;
+    }
+
+    public String name() { return "random";
+    }
+
+    public Point nextMove(BoardView view) {
+        int n = view.getSize();
+        BitGrid shot = view.shotMask();
+        // спершу кілька спроб навмання, на щільно простріленому полі - вибір k-тої вільної
+        for (int t = 0; t < 32; t++) {
+            int i = rnd.nextInt(n * n);
+            if (!shot.get(i)) return new Point(i / n, i % n);
+        }
+        int free = n * n - shot.cardinality();
+        if (free == 0) return null;
+        int k = rnd.nextInt(free);
+        for (int i = 0; i < n * n; i++) {
+            if (!shot.get(i) && k-- == 0) return new Point(i / n, i % n);
+        }
+        return null;
+    }
+}
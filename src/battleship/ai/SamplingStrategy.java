@@ -0,0 +1,49 @@
+package battleship.ai;
+
+import battleship.core.Board;
+import battleship.core.BoardView;
+import battleship.core.HeatMap;
+import battleship.core.MonteCarloSampler;
+
+import java.awt.Point;
+import java.util.random.RandomGenerator;
+
+/**
+ * Вибір за розміром поля, як Board.Targeting.AUTO: до Board.SAMPLING_MAX_SIZE - вибірка
+ * повних узгоджених розстановок (MonteCarloSampler), на більших полях і коли жодна
+ * вибірка не підійшла - вкладена стратегія.
+ */
+public final class SamplingStrategy implements TargetingStrategy {
+    private final TargetingStrategy inner;
+    private final MonteCarloSampler sampler;
+    private final int maxSize;
+    private final RandomGenerator rnd;
+
+    public SamplingStrategy(TargetingStrategy inner, MonteCarloSampler sampler, int maxSize, RandomGenerator rnd) {
+        this.inner = inner;
+        this.sampler = sampler;
+        this.maxSize = maxSize;
+        this.rnd = rnd;
+    }
+
+    public SamplingStrategy(RandomGenerator rnd) {
+        this(new OptimizedHeatMapStrategy(rnd), new MonteCarloSampler(), Board.SAMPLING_MAX_SIZE, rnd);
+    }
+
+    public String name() { return "sampling";
+    }
+
+    public void newGame() { inner.newGame();
+    }
+
+    public void gameOver(int shots, boolean won) { inner.gameOver(shots, won);
+    }
+
+    public Point nextMove(BoardView v) {
+        if (v.getSize() <= maxSize) {
+            int[] counts = sampler.estimate(v, rnd);
+            if (counts != null) return HeatMap.bestMove(counts, v, rnd);
+        }
+        return inner.nextMove(v);
+    }
+}
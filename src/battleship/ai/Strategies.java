@@ -0,0 +1,56 @@
+package battleship.ai;
+
+import battleship.core.EndgameSolver;
+import battleship.core.OpeningBook;
+import battleship.core.TargetCache;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.function.Function;
+
+/** Стратегії за назвою; кожен виклик create дає новий екземпляр зі своїм станом. */
+public final class Strategies {
+    public static final List<String> NAMES = List.of("random", "parity", "heatmap", "optimized", "endgame", "sampling");
+
+    private Strategies() {
+    }
+
+    public static TargetingStrategy create(String name, RandomGenerator rnd) {
+        return switch (name) {
+            case "random" -> new RandomStrategy(rnd);
+            case "parity" -> new ParityStrategy(rnd);
+            case "heatmap" -> new HeatMapStrategy(rnd);
+            case "optimized" -> new OptimizedHeatMapStrategy(rnd);
+            case "endgame" -> new EndgameStrategy(new OptimizedHeatMapStrategy(rnd), new EndgameSolver());
+            case "sampling" -> new SamplingStrategy(rnd);
+            default -> throw new IllegalArgumentException("Невідома стратегія: " + name + ", доступні " + NAMES);
+        };
+    }
+
+    /** Стратегії, ходи яких повністю визначає карта ймовірностей; лише їм підходить дебютна книга. */
+    public static boolean usesHeatMap(String name) { return name.equals("heatmap") || name.equals("optimized");
+    }
+
+    public static Function<RandomGenerator, TargetingStrategy> factory(String name) {
+        if (!NAMES.contains(name)) throw new IllegalArgumentException("Невідома стратегія: " + name + ", доступні " + NAMES);
+        return rnd -> create(name, rnd);
+    }
+
+    /** Фабрика, що обгортає кожен екземпляр у InstrumentedStrategy зі спільними метриками. */
+    public static Function<RandomGenerator, TargetingStrategy> instrumented(Function<RandomGenerator, TargetingStrategy> factory,
+                                                                   StrategyMetrics metrics) {
+        return rnd -> new InstrumentedStrategy(factory.apply(rnd), metrics);
+    }
+
+    /** Фабрика стратегій з дебютною книгою і спільним кешем ходів (cache може бути null). */
+    public static Function<RandomGenerator, TargetingStrategy> withBook(Function<RandomGenerator, TargetingStrategy> factory,
+                                                               OpeningBook book, MoveCache cache) {
+        return rnd -> new OpeningBookStrategy(factory.apply(rnd), book, cache);
+    }
+
+    /** Фабрика стратегій зі спільним кешем ходів добивання. */
+    public static Function<RandomGenerator, TargetingStrategy> withTargetCache(Function<RandomGenerator, TargetingStrategy> factory,
+                                                                      TargetCache cache) {
+        return rnd -> new TargetCacheStrategy(factory.apply(rnd), cache);
+    }
+}
@@ -0,0 +1,39 @@
+package battleship.ai;
+
+import battleship.metrics.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Метрики однієї стратегії, спільні для всіх її екземплярів у всіх потоках. */
+public final class StrategyMetrics {
+    public final String name;
+    // тривалість nextMove, нс
+    public final Histogram latency = new Histogram();
+    // виділено байтів за nextMove (якщо JVM це підтримує)
+    public final Histogram allocated = new Histogram();
+    public final Histogram shotsToWin = new Histogram();
+    final LongAdder moves = new LongAdder();
+    final LongAdder games = new LongAdder();
+    final LongAdder wins = new LongAdder();
+
+    public StrategyMetrics(String name) { this.name = name;
+    }
+
+    public long moves() { return moves.sum();
+    }
+    public long games() { return games.sum();
+    }
+    public long wins() { return wins.sum();
+    }
+
+    public String report() {
+        long g = games();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%s: moves %d, games %d, wins %d (%.1f%%)%n",
+                name, moves(), g, wins(), g == 0 ? 0 : wins() * 100.0 / g));
+        sb.append("  latency   ").append(latency.summary(1000, "us")).append(System.lineSeparator());
+        sb.append("  allocated ").append(allocated.summary(1, "B")).append(System.lineSeparator());
+        sb.append("  shots     ").append(shotsToWin.summary(1, "")).append(System.lineSeparator());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package battleship.ai;
+
+import battleship.core.BitGrid;
+import battleship.core.BoardView;
+import battleship.core.HeatMap;
+import battleship.core.TargetCache;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+/**
+ * Стратегія карти ймовірностей зі спільним кешем ходів добивання: після попадання хід
+ * шукається в TargetCache за околом попадань і лише за промаху кешу карта рахується
+ * повністю. Ходи ті самі, що в heatmap; решту ходів робить вкладена стратегія.
+ */
+public final class TargetCacheStrategy implements TargetingStrategy {
+    private final TargetingStrategy inner;
+    private final TargetCache cache;
+    private int[] ties = new int[16];
+
+    public TargetCacheStrategy(TargetingStrategy inner, TargetCache cache) {
+        this.inner = inner;
+        this.cache = cache;
+    }
+
+    public String name() { return inner.name();
+    }
+
+    public void newGame() { inner.newGame();
+    }
+
+    public void gameOver(int shots, boolean won) { inner.gameOver(shots, won);
+    }
+
+    public Point nextMove(BoardView v) {
+        TargetCache.Key key = TargetCache.keyOf(v);
+        if (key == null) return inner.nextMove(v);
+        int n = v.getSize();
+        BitGrid shot = v.shotMask();
+        int cell = cache.get(key, shot);
+        if (cell >= 0) return new Point(cell / n, cell % n);
+        // усі клітини з найбільшою вагою: у симетричному стані найкращою буде інша з них
+        int[] heat = HeatMap.full(v);
+        int max = 0, count = 0;
+        for (int i = 0; i < heat.length; i++) {
+            if (shot.get(i) || heat[i] < max || heat[i] == 0) continue;
+            if (heat[i] > max) {
+                max = heat[i];
+                count = 0;
+            }
+            if (count == ties.length) ties = Arrays.copyOf(ties, count * 2);
+            ties[count++] = i;
+        }
+        // без додатних ваг хід випадковий - такий не кешується
+        if (count == 0) return inner.nextMove(v);
+        cache.put(key, ties, count);
+        return new Point(ties[0] / n, ties[0] % n);
+    }
+}
@@ -0,0 +1,24 @@
+package battleship.ai;
+
+import battleship.core.BoardView;
+
+import java.awt.Point;
+
+/**
+ * Спосіб вибору пострілу. Бачить лише те, що видно стрільцю (BoardView),
+ * і сам зберігає свій стан між ходами. Один екземпляр грає одну гру за раз.
+ */
+public interface TargetingStrategy {
+    String name();
+
+    /** Наступна непрострілена клітина. */
+    Point nextMove(BoardView view);
+
+    /** Початок нової гри: стан попередньої більше не потрібен. */
+    default void newGame() {
+    }
+
+    /** Гру завершено; shots - кількість пострілів цієї стратегії. */
+    default void gameOver(int shots, boolean won) {
+    }
+}
@@ -0,0 +1,153 @@
+package battleship.analytics;
+
+import battleship.core.BitGrid;
+import battleship.core.FleetPlacer;
+import battleship.core.LayoutCodec;
+import battleship.record.ArchiveHeader;
+import battleship.record.GameArchive;
+import battleship.record.GameRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потоковий аналіз архіву ігор. Архів ділиться на частини по межах записів, кожна
+ * частина читається послідовно; на кожен потік пулу - одне завдання fork-join зі своїм
+ * CorpusStats, яке бере частини по черзі, а результати зливаються.
+ * Пам'ять - кілька масивів розміру поля на потік.
+ * Постріли не програються через Board: для статистики досить знати кораблі
+ * обох полів і вже влучені клітини.
+ */
+public final class CorpusAnalyzer {
+    private final ForkJoinPool pool;
+
+    public CorpusAnalyzer(ForkJoinPool pool) { this.pool = pool;
+    }
+
+    public CorpusStats analyze(GameArchive archive) {
+        long start = System.nanoTime();
+        int threads = pool.getParallelism();
+        // частин більше, ніж потоків, щоб вирівняти навантаження; накопичувач - один на завдання
+        List<long[]> parts = archive.partitions(threads * 4);
+        AtomicInteger next = new AtomicInteger();
+        List<ForkJoinTask<CorpusStats>> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            tasks.add(pool.submit(() -> {
+                Worker w = new Worker(archive.header());
+                CorpusStats stats = new CorpusStats(w.n);
+                for (int i; (i = next.getAndIncrement()) < parts.size(); ) w.scan(stats, archive, parts.get(i)[0], parts.get(i)[1]);
+                return stats;
+            }));
+        }
+        CorpusStats total = tasks.get(0).join();
+        for (int t = 1; t < tasks.size(); t++) {
+            total.merge(tasks.get(t).join());
+            tasks.set(t, null);
+        }
+        total.elapsedNanos = System.nanoTime() - start;
+        return total;
+    }
+
+    /** Стан одного завдання; масиви очищуються після кожної гри лише в клітинах кораблів. */
+    private static final class Worker {
+        final ArchiveHeader header;
+        final LayoutCodec codec;
+        final int n;
+        final int[] fleet;
+        // [поле][клітина]: номер корабля + 1
+        final int[][] owner;
+        // [поле][корабель]: скільки клітин ще не влучено
+        final int[][] left;
+        final BitGrid[] hit;
+        final int[][] slots = new int[2][];
+
+        Worker(ArchiveHeader header) {
+            this.header = header;
+            codec = header.codec();
+            n = header.n;
+            fleet = header.fleet;
+            owner = new int[2][n * n];
+            left = new int[2][fleet.length];
+            hit = new BitGrid[]{new BitGrid(n), new BitGrid(n)};
+        }
+
+        void scan(CorpusStats stats, GameArchive archive, long from, long to) {
+            GameArchive.Cursor cursor = archive.cursor(from, to);
+            while (cursor.next()) add(stats, cursor.record());
+        }
+
+        private void add(CorpusStats stats, GameRecord rec) {
+            for (int b = 0; b < 2; b++) {
+                slots[b] = codec.decode(rec.layout(b));
+                for (int i = 0; i < fleet.length; i++) {
+                    left[b][i] = fleet[i];
+                    forCells(slots[b][i], fleet[i], owner[b], i + 1);
+                }
+            }
+            int[] shots = new int[2];
+            boolean[] firstHit = new boolean[2];
+            int turn = 0;
+            for (int k = 0; k < rec.shotCount(); k++) {
+                int cell = rec.shot(k), target = 1 - turn;
+                shots[turn]++;
+                int id = owner[target][cell];
+                // повторний постріл - як промах, так само як у HeadlessGame.shoot
+                if (id == 0 || hit[target].get(cell)) {
+                    turn = 1 - turn;
+                    continue;
+                }
+                hit[target].set(cell);
+                left[target][id - 1]--;
+                if (!firstHit[turn]) {
+                    firstHit[turn] = true;
+                    stats.firstHits[cell]++;
+                }
+            }
+
+            int winner = rec.winner();
+            stats.games++;
+            stats.shots += rec.shotCount();
+            stats.addWin(shots[winner]);
+            stats.playerGames[rec.firstPlayer()]++;
+            stats.playerGames[rec.secondPlayer()]++;
+            stats.playerWins[winner == 0 ? rec.firstPlayer() : rec.secondPlayer()]++;
+            for (int i = 0; i < fleet.length; i++) {
+                stats.shipsBySize[fleet[i]]++;
+                if (left[winner][i] > 0) stats.survivedBySize[fleet[i]]++;
+            }
+
+            for (int b = 0; b < 2; b++) {
+                for (int i = 0; i < fleet.length; i++) {
+                    forCells(slots[b][i], fleet[i], owner[b], 0);
+                    int cell = slots[b][i] >> 1, step = FleetPlacer.slotHoriz(slots[b][i]) ? 1 : n;
+                    for (int j = 0; j < fleet[i]; j++) hit[b].clear(cell + j * step);
+                }
+            }
+        }
+
+        private void forCells(int slot, int size, int[] cells, int value) {
+            int cell = slot >> 1, step = FleetPlacer.slotHoriz(slot) ? 1 : n;
+            for (int j = 0; j < size; j++) cells[cell + j * step] = value;
+        }
+    }
+
+    /** Аргументи: файл архіву [потоків]. */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) throw new IllegalArgumentException("Потрібен шлях до архіву ігор");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        if (threads <= 0) threads = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (GameArchive archive = GameArchive.open(Path.of(args[0]))) {
+            CorpusStats stats = new CorpusAnalyzer(pool).analyze(archive);
+            System.out.println(archive.header().config());
+            System.out.print(stats.report(archive.header().players));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
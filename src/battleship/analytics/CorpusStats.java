@@ -0,0 +1,162 @@
+package battleship.analytics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Зведена статистика архіву ігор. Розмір не залежить від кількості ігор:
+ * лише лічильники по клітинах, пострілах, розмірах кораблів і гравцях.
+ * Частини, пораховані паралельно, об'єднуються через merge.
+ * Розподіл пострілів до перемоги - розріджений, як у BatchStats: лише кількості пострілів,
+ * що траплялися, за зростанням, а не щільний масив на 2 * n * n + 1 елементів.
+ */
+public final class CorpusStats {
+    public final int n;
+    public long games;
+    public long shots;
+    // firstHits[клітина] - скільки разів перше влучання гравця в грі було в цю клітину
+    public final long[] firstHits;
+    // більше пострілів не рахується окремо
+    private final int maxShots;
+    // winCounts[i] ігор виграно за winShots[i] пострілів; winShots - за зростанням, i < distinct
+    private int[] winShots = new int[16];
+    private long[] winCounts = new long[16];
+    private int distinct;
+    // кораблі поля переможця за розміром і скільки з них не потоплено
+    public final long[] shipsBySize = new long[65];
+    public final long[] survivedBySize = new long[65];
+    // за номером гравця в архіві
+    public final long[] playerGames = new long[256];
+    public final long[] playerWins = new long[256];
+    public long elapsedNanos;
+
+    public CorpusStats(int n) {
+        this.n = n;
+        firstHits = new long[n * n];
+        maxShots = 2 * n * n;
+    }
+
+    /** Ще одна гра, виграна за k пострілів. */
+    public void addWin(int k) {
+        k = Math.min(k, maxShots);
+        int i = Arrays.binarySearch(winShots, 0, distinct, k);
+        if (i >= 0) {
+            winCounts[i]++;
+            return;
+        }
+        i = -i - 1;
+        if (distinct == winShots.length) {
+            winShots = Arrays.copyOf(winShots, distinct * 2);
+            winCounts = Arrays.copyOf(winCounts, distinct * 2);
+        }
+        System.arraycopy(winShots, i, winShots, i + 1, distinct - i);
+        System.arraycopy(winCounts, i, winCounts, i + 1, distinct - i);
+        winShots[i] = k;
+        winCounts[i] = 1;
+        distinct++;
+    }
+
+    /** Кількість ігор, виграних рівно за k пострілів. */
+    public long gamesWonIn(int k) {
+        int i = Arrays.binarySearch(winShots, 0, distinct, k);
+        return i >= 0 ? winCounts[i] : 0;
+    }
+
+    public CorpusStats merge(CorpusStats o) {
+        games += o.games;
+        shots += o.shots;
+        for (int i = 0; i < firstHits.length; i++) firstHits[i] += o.firstHits[i];
+        // злиття двох упорядкованих списків
+        int[] ws = new int[distinct + o.distinct];
+        long[] wc = new long[ws.length];
+        int a = 0, b = 0, d = 0;
+        while (a < distinct || b < o.distinct) {
+            if (b == o.distinct || a < distinct && winShots[a] < o.winShots[b]) {
+                ws[d] = winShots[a];
+                wc[d++] = winCounts[a++];
+            } else if (a == distinct || o.winShots[b] < winShots[a]) {
+                ws[d] = o.winShots[b];
+                wc[d++] = o.winCounts[b++];
+            } else {
+                ws[d] = winShots[a];
+                wc[d++] = winCounts[a++] + o.winCounts[b++];
+            }
+        }
+        winShots = ws;
+        winCounts = wc;
+        distinct = d;
+        for (int s = 0; s < shipsBySize.length; s++) {
+            shipsBySize[s] += o.shipsBySize[s];
+            survivedBySize[s] += o.survivedBySize[s];
+        }
+        for (int p = 0; p < playerGames.length; p++) {
+            playerGames[p] += o.playerGames[p];
+            playerWins[p] += o.playerWins[p];
+        }
+        return this;
+    }
+
+    public double gamesPerSecond() { return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+
+    public double meanShotsToWin() {
+        long total = 0;
+        for (int i = 0; i < distinct; i++) total += winShots[i] * winCounts[i];
+        return games == 0 ? 0 : (double) total / games;
+    }
+
+    /** Кількість пострілів, за яку виграно щонайменше частку q ігор. */
+    public int shotsPercentile(double q) {
+        long need = (long) Math.ceil(q * games), acc = 0;
+        for (int i = 0; i < distinct; i++) {
+            acc += winCounts[i];
+            if (acc >= need && acc > 0) return winShots[i];
+        }
+        return maxShots;
+    }
+
+    public double winRate(int player) { return playerGames[player] == 0 ? 0 : (double) playerWins[player] / playerGames[player];
+    }
+
+    public double survivalRate(int size) { return shipsBySize[size] == 0 ? 0 : (double) survivedBySize[size] / shipsBySize[size];
+    }
+
+    public String report(List<String> players) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("games: %d, shots %d, %.1f s, %.0f games/sec%n", games, shots, elapsedNanos / 1e9, gamesPerSecond()));
+        sb.append(String.format("shots to win: mean %.2f, p50 %d, p90 %d, p99 %d, max %d%n",
+                meanShotsToWin(), shotsPercentile(0.5), shotsPercentile(0.9), shotsPercentile(0.99), shotsPercentile(1.0)));
+        for (int p = 0; p < players.size(); p++) {
+            sb.append(String.format("player %d %s: games %d, wins %d (%.2f%%)%n",
+                    p, players.get(p), playerGames[p], playerWins[p], winRate(p) * 100));
+        }
+        for (int s = 1; s < shipsBySize.length; s++) {
+            if (shipsBySize[s] == 0) continue;
+            sb.append(String.format("size %d: winner's ships %d, survived %.2f%%%n", s, shipsBySize[s], survivalRate(s) * 100));
+        }
+        long total = 0;
+        for (long v : firstHits) total += v;
+        if (total == 0) return sb.toString();
+        if (n <= 20) {
+            sb.append("first hit, per mille:").append(System.lineSeparator());
+            for (int r = 0; r < n; r++) {
+                for (int c = 0; c < n; c++) sb.append(String.format("%6.1f", firstHits[r * n + c] * 1000.0 / total));
+                sb.append(System.lineSeparator());
+            }
+        } else {
+            // на великому полі - лише десять найчастіших клітин
+            sb.append("first hit, top cells:");
+            boolean[] used = new boolean[firstHits.length];
+            for (int k = 0; k < 10; k++) {
+                int best = -1;
+                for (int i = 0; i < firstHits.length; i++)
+                    if (!used[i] && (best < 0 || firstHits[i] > firstHits[best])) best = i;
+                if (best < 0 || firstHits[best] == 0) break;
+                used[best] = true;
+                sb.append(String.format(" (%d,%d) %.2f%%", best / n, best % n, firstHits[best] * 100.0 / total));
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
@@ -1,11 +1,19 @@
 package battleship.app;
 
+import battleship.core.GameConfig;
+import battleship.metrics.MetricsRegistry;
 import battleship.ui.BattleshipGame;
 
 import javax.swing.SwingUtilities;
 
 public class Main {
+    /** Аргументи: [розмір поля] [флот: standard, scaled, long або 4,3,3,2] [пауза ходу ворога, мс]. */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(BattleshipGame::new);
+        GameConfig config = args.length == 0 ? GameConfig.standard()
+                : GameConfig.of(Integer.parseInt(args[0]), args.length > 1 ? args[1] : "standard");
+        long delay = args.length > 2 ? Long.parseLong(args[2]) : BattleshipGame.DEFAULT_AI_DELAY;
+        if (MetricsRegistry.enabled())
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(MetricsRegistry.global().snapshot())));
+        SwingUtilities.invokeLater(() -> new BattleshipGame(config, delay));
     }
-}
\ No newline at end of file
+}
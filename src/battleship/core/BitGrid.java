@@ -0,0 +1,108 @@
+package battleship.core;
+
+import java.util.Arrays;
+
+/**
+ * Квадратне поле n x n, упаковане по рядках у масив long (клітина r*n+c).
+ * Для поля 10x10 це два слова.
+ */
+public final class BitGrid {
+    final int n;
+    final long[] words;
+
+    public BitGrid(int n) {
+        this.n = n;
+        words = new long[(n * n + 63) >>> 6];
+    }
+
+    private BitGrid(int n, long[] words) {
+        this.n = n;
+        this.words = words;
+    }
+
+    public int size() { return n;
+    }
+    public int wordCount() { return words.length;
+    }
+    public long word(int w) { return words[w];
+    }
+
+    public boolean get(int i) { return (words[i >>> 6] & (1L << i)) != 0;
+    }
+    public boolean get(int r, int c) { return get(r * n + c);
+    }
+    public void set(int i) { words[i >>> 6] |= 1L << i;
+    }
+    public void clear(int i) { words[i >>> 6] &= ~(1L << i);
+    }
+    public void clearAll() { Arrays.fill(words, 0L);
+    }
+
+    /** Встановлює біти [from, to). */
+    public void setRange(int from, int to) {
+        if (from >= to) return;
+        int fw = from >>> 6, tw = (to - 1) >>> 6;
+        long first = -1L << from;
+        long last = -1L >>> -to;
+        if (fw == tw) {
+            words[fw] |= first & last;
+            return;
+        }
+        words[fw] |= first;
+        for (int w = fw + 1; w < tw; w++) words[w] = -1L;
+        words[tw] |= last;
+    }
+
+    /** Чи є хоч один встановлений біт у [from, to). */
+    public boolean anyInRange(int from, int to) {
+        if (from >= to) return false;
+        int fw = from >>> 6, tw = (to - 1) >>> 6;
+        long first = -1L << from;
+        long last = -1L >>> -to;
+        if (fw == tw) return (words[fw] & first & last) != 0;
+        if ((words[fw] & first) != 0) return true;
+        for (int w = fw + 1; w < tw; w++) if (words[w] != 0) return true;
+        return (words[tw] & last) != 0;
+    }
+
+    public boolean intersects(BitGrid o) {
+        for (int w = 0; w < words.length; w++) if ((words[w] & o.words[w]) != 0) return true;
+        return false;
+    }
+
+    public boolean sameAs(BitGrid o) { return Arrays.equals(words, o.words);
+    }
+
+    public boolean isEmpty() {
+        for (long w : words) if (w != 0) return false;
+        return true;
+    }
+
+    public int cardinality() {
+        int res = 0;
+        for (long w : words) res += Long.bitCount(w);
+        return res;
+    }
+
+    /** Індекс наступного встановленого біта, починаючи з from, або -1. */
+    public int nextSetBit(int from) {
+        int total = n * n;
+        if (from >= total) return -1;
+        int w = from >>> 6;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                return i < total ? i : -1;
+            }
+            if (++w == words.length) return -1;
+            word = words[w];
+        }
+    }
+
+    public void copyFrom(BitGrid o) { System.arraycopy(o.words, 0, words, 0, words.length);
+    }
+
+    public BitGrid copy() { return new BitGrid(n, words.clone());
+    }
+}
@@ -1,251 +1,477 @@
 package battleship.core;
 
+import battleship.metrics.AIMoveEvent;
+import battleship.metrics.Histogram;
+import battleship.metrics.MetricsRegistry;
+import battleship.metrics.PlacementEvent;
+import battleship.metrics.ShotEvent;
+
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
 
-public class Board {
+public class Board implements BoardView {
     public static final int EMPTY = 0;
     public static final int SHIP = 1;
+    // до якого розміру поля AUTO використовує вибірку розстановок
+    public static final int SAMPLING_MAX_SIZE = 16;
+
+    /**
+     * Як AI оцінює клітини: незалежний підрахунок положень кожного корабля (HeatMap),
+     * вибірка повних розстановок (MonteCarloSampler) або вибір за розміром поля.
+     * На малих полях вибірка точніша і вкладається в кілька мілісекунд; на великих
+     * інкрементальний підрахунок швидший на порядки, а вибірці бракує розстановок.
+     */
+    public enum Targeting { EXACT, SAMPLING, AUTO }
+
+    private static MonteCarloSampler defaultSampler;
+
+    // метрики пишуться лише при MetricsRegistry.enabled()
+    private static final LongAdder SHOTS = MetricsRegistry.global().counter("board.shots");
+    private static final LongAdder HITS = MetricsRegistry.global().counter("board.hits");
+    private static final LongAdder SUNK = MetricsRegistry.global().counter("board.sunk");
+    private static final Histogram PLACE_NANOS = MetricsRegistry.global().timer("board.placement");
+    private static final Histogram PLACE_ATTEMPTS = MetricsRegistry.global().histogram("board.placement.attempts");
+    private static final Histogram PLACE_RESTARTS = MetricsRegistry.global().histogram("board.placement.restarts");
+    private static final Histogram MOVE_NANOS = MetricsRegistry.global().timer("ai.move");
+    private static final Histogram BOOK_NANOS = MetricsRegistry.global().timer("ai.move.book");
+    private static final Histogram ENDGAME_NANOS = MetricsRegistry.global().timer("ai.move.endgame");
+    private static final Histogram REMAINING_NANOS = MetricsRegistry.global().timer("ai.move.remaining");
+    private static final Histogram GRID_NANOS = MetricsRegistry.global().timer("ai.move.grid");
+    private static final Histogram ARGMAX_NANOS = MetricsRegistry.global().timer("ai.move.argmax");
 
     int n;
-    public int[][] grid;
-    public boolean[][] shot;
     public List<Ship> ships = new ArrayList<>();
-    Random rnd = new Random();
+    RandomGenerator rnd;
     int[] shipSizes;
 
-    List<Point> aiTargets = new ArrayList<>();
-    public Point lastHit = null;
+    // Бітові маски стану поля (клітина r*n+c)
+    final BitGrid shipMask;
+    final BitGrid shotMask;
+    final BitGrid hitMask;
+    final BitGrid sunkMask;
+    // Кораблі разом з ореолом - клітини, де не можна ставити новий корабель
+    final BitGrid haloMask;
+    // Номер корабля (індекс у ships + 1) за клітиною
+    final ShipIndex shipIds = new ShipIndex();
+
+    // розстановник займає O(n^2) на кожен розмір корабля, тож він один на потік, а не на поле
+    private static final ThreadLocal<FleetPlacer> PLACERS = new ThreadLocal<>();
+    Targeting targeting = Targeting.EXACT;
+    MonteCarloSampler sampler;
+    OpeningBook openingBook;
+    EndgameSolver endgame;
+
+    // Інкрементальна карта ймовірностей для nextAIMove, створюється при першому виклику
+    HeatMap heatMap;
+
+    // журнал прострілених клітин у порядку пострілів
+    private int[] shotLog = new int[16];
+    private int shotLen;
+    // змінені клітини для інтерфейсу; null, поки ніхто не стежить
+    private CellChanges changes;
+    private int generation;
 
     public Board(int n, int[] shipSizes) {
+        this(n, shipSizes, new SplitMixRandom());
+    }
+
+    /** rnd - для розстановки і випадкових ходів AI; з тим самим seed поле поводиться однаково. */
+    public Board(int n, int[] shipSizes, RandomGenerator rnd) {
         this.n = n;
+        this.rnd = rnd;
         this.shipSizes = shipSizes;
-        grid = new int[n][n];
-        shot = new boolean[n][n];
+        shipMask = new BitGrid(n);
+        shotMask = new BitGrid(n);
+        hitMask = new BitGrid(n);
+        sunkMask = new BitGrid(n);
+        haloMask = new BitGrid(n);
     }
 
     public void clear() {
-        for (int i = 0; i < n; i++) Arrays.fill(grid[i], EMPTY);
-        for (int i = 0; i < n; i++) Arrays.fill(shot[i], false);
+        shipMask.clearAll();
+        shotMask.clearAll();
+        hitMask.clearAll();
+        sunkMask.clearAll();
+        haloMask.clearAll();
+        shipIds.clear();
         ships.clear();
+        heatMap = null;
+        shotLen = 0;
+        generation++;
+        if (changes != null) changes.addAll();
+    }
+
+    /** Прибирає всі постріли, залишаючи розстановку кораблів. */
+    public void resetShots() {
+        shotMask.clearAll();
+        hitMask.clearAll();
+        sunkMask.clearAll();
+        for (Ship s : ships) s.reset();
+        heatMap = null;
+        shotLen = 0;
+        generation++;
+        if (changes != null) changes.addAll();
+    }
+
+    /** Вмикає облік змінених клітин; спочатку вважається зміненим усе поле. */
+    public CellChanges trackChanges() {
+        if (changes == null) changes = new CellChanges(n);
+        return changes;
+    }
+
+    public int getSize() { return n;
+    }
+    public int getCell(int r, int c) { return shipMask.get(r * n + c) ? SHIP : EMPTY;
+    }
+    public boolean isShot(int r, int c) { return shotMask.get(r * n + c);
+    }
+    public boolean isHit(int r, int c) { return hitMask.get(r * n + c);
+    }
+    public boolean isSunk(int r, int c) { return sunkMask.get(r * n + c);
     }
 
-    public int getCell(int r, int c) { return grid[r][c];
+    /** Розстановка у старому вигляді grid[r][c] (EMPTY або SHIP); копія, зміни не впливають на поле. */
+    public int[][] grid() {
+        int[][] grid = new int[n][n];
+        for (int i = shipMask.nextSetBit(0); i >= 0; i = shipMask.nextSetBit(i + 1)) grid[i / n][i % n] = SHIP;
+        return grid;
     }
-    public boolean isShot(int r, int c) { return shot[r][c];
+
+    /** Прострілені клітини у старому вигляді shot[r][c]; копія, зміни не впливають на поле. */
+    public boolean[][] shot() {
+        boolean[][] shot = new boolean[n][n];
+        for (int i = shotMask.nextSetBit(0); i >= 0; i = shotMask.nextSetBit(i + 1)) shot[i / n][i % n] = true;
+        return shot;
+    }
+
+    public BitGrid shotMask() { return shotMask;
+    }
+    public BitGrid hitMask() { return hitMask;
+    }
+    public BitGrid sunkMask() { return sunkMask;
+    }
+    public int shotCount() { return shotLen;
+    }
+    public int shotAt(int i) { return shotLog[i];
+    }
+    public int generation() { return generation;
+    }
+
+    /** Незмінна копія видимого стану, яку можна читати з іншого потоку. */
+    public BoardSnapshot snapshot() { return new BoardSnapshot(this, shotLog, shotLen);
+    }
+
+    public int[] remainingShipSizes() {
+        if (ships.isEmpty()) return shipSizes;
+        int cnt = 0;
+        for (Ship s : ships) if (!s.isSunk()) cnt++;
+        int[] res = new int[cnt];
+        cnt = 0;
+        for (Ship s : ships) if (!s.isSunk()) res[cnt++] = s.getSize();
+        return res;
+    }
+
+    private void logShot(int i) {
+        if (shotLen == shotLog.length) shotLog = Arrays.copyOf(shotLog, shotLen * 2);
+        shotLog[shotLen++] = i;
+    }
+
+    /** Корабель, що займає клітину, або null. */
+    public Ship shipAt(int r, int c) {
+        int id = shipIds.get(r * n + c);
+        return id == 0 ? null : ships.get(id - 1);
+    }
+
+    /** Позначає клітину як прострілену без пострілу (ореол навколо потопленого корабля). */
+    public void markShot(int r, int c) {
+        int i = r * n + c;
+        if (shotMask.get(i)) return;
+        shotMask.set(i);
+        logShot(i);
+        if (changes != null) changes.add(i);
+        if (heatMap != null) heatMap.onMiss(i);
+    }
+
+    /** Позначає прострілянами всі клітини навколо потопленого корабля. */
+    public void markAround(Ship s) {
+        int r0 = Math.max(0, s.getRow() - 1), r1 = Math.min(n - 1, s.cellRow(s.getSize() - 1) + 1);
+        int c0 = Math.max(0, s.getCol() - 1), c1 = Math.min(n - 1, s.cellCol(s.getSize() - 1) + 1);
+        for (int r = r0; r <= r1; r++)
+            for (int c = c0; c <= c1; c++)
+                if (!shipMask.get(r * n + c)) markShot(r, c);
+    }
+
+    public int[] getShipSizes() { return shipSizes;
     }
 
     public boolean shoot(int r, int c) {
-        shot[r][c] = true;
-        if (grid[r][c] == SHIP) {
-            for (Ship s : ships) {
-                if (s.contains(r, c)) {
-                    s.hit(r, c);
-                    if (!s.isSunk()) {
-                        lastHit = new Point(r, c);
-                    } else {
-                        aiTargets.clear();
-                        lastHit = null;
-                    }
+        ShotEvent ev = new ShotEvent();
+        boolean metrics = MetricsRegistry.enabled();
+        boolean wasSunk = (metrics || ev.isEnabled()) && sunkMask.get(r * n + c);
+        ev.begin();
+        boolean hit = applyShot(r, c);
+        boolean sunkNow = hit && !wasSunk && sunkMask.get(r * n + c);
+        if (metrics) {
+            SHOTS.increment();
+            if (hit) HITS.increment();
+            if (sunkNow) SUNK.increment();
+        }
+        if (ev.shouldCommit()) {
+            ev.row = r;
+            ev.col = c;
+            ev.hit = hit;
+            ev.sunk = sunkNow;
+            ev.shots = shotLen;
+            ev.commit();
+        }
+        return hit;
+    }
+
+    private boolean applyShot(int r, int c) {
+        int i = r * n + c;
+        boolean repeat = shotMask.get(i);
+        shotMask.set(i);
+        if (!repeat) logShot(i);
+        if (changes != null) changes.add(i);
+        int id = shipIds.get(i);
+        if (id != 0) {
+            hitMask.set(i);
+            Ship s = ships.get(id - 1);
+            s.hit(r, c);
+            if (!s.isSunk()) {
+                if (heatMap != null && !repeat) heatMap.onHit(i);
+            } else {
+                boolean wasSunk = sunkMask.get(i);
+                for (int k = 0; k < s.getSize(); k++) {
+                    int j = s.cellRow(k) * n + s.cellCol(k);
+                    sunkMask.set(j);
+                    if (changes != null) changes.add(j);
                 }
+                if (heatMap != null && !wasSunk) heatMap.onSunk(s);
             }
             return true;
         }
+        if (heatMap != null && !repeat) heatMap.onMiss(i);
         return false;
     }
 
     public boolean canPlace(int row, int col, int size, boolean horiz) {
-        if (horiz && col + size > n) return false;
-        if (!horiz && row + size > n) return false;
+        if (row < 0 || col < 0) return false;
+        if (horiz && (col + size > n || row >= n)) return false;
+        if (!horiz && (row + size > n || col >= n)) return false;
+        int start = row * n + col;
+        if (horiz) return !haloMask.anyInRange(start, start + size);
         for (int k = 0; k < size; k++) {
-            int r = row + (horiz ? 0 : k);
-            int c = col + (horiz ? k : 0);
-            if (grid[r][c] == SHIP) return false;
-            for (int dr = -1; dr <= 1; dr++)
-                for (int dc = -1; dc <= 1; dc++) {
-                    int nr = r + dr;
-                    int nc = c + dc;
-                    if (nr >= 0 && nr < n && nc >= 0 && nc < n)
-                        if (grid[nr][nc] == SHIP) return false;
-                }
+            if (haloMask.get(start + k * n)) return false;
         }
         return true;
     }
 
+    /** Ставить корабель без перевірки; перед викликом потрібен canPlace. */
+    public Ship placeShip(int row, int col, int size, boolean horiz) {
+        Ship s = new Ship(row, col, size, horiz);
+        int id = ships.size() + 1;
+        for (int k = 0; k < size; k++) {
+            int i = s.cellRow(k) * n + s.cellCol(k);
+            shipMask.set(i);
+            shipIds.put(i, id);
+            if (changes != null) changes.add(i);
+        }
+        // ореол: прямокутник навколо корабля, обрізаний межами поля
+        int r0 = Math.max(0, row - 1), r1 = Math.min(n - 1, row + (horiz ? 0 : size - 1) + 1);
+        int c0 = Math.max(0, col - 1), c1 = Math.min(n - 1, col + (horiz ? size - 1 : 0) + 1);
+        for (int r = r0; r <= r1; r++) haloMask.setRange(r * n + c0, r * n + c1 + 1);
+        ships.add(s);
+        heatMap = null;
+        return s;
+    }
+
     public void placeShipsRandomly(int[] shipSizes) {
-        for (int size : shipSizes) {
-            boolean placed = false;
-            int attempts = 0;
-            while (!placed && attempts < 5000) {
-                attempts++;
-                boolean horiz = rnd.nextBoolean();
-                int row = rnd.nextInt(n);
-                int col = rnd.nextInt(n);
-                if (canPlace(row, col, size, horiz)) {
-                    Ship s = new Ship(size);
-                    for (int k = 0; k < size; k++) {
-                        int r = row + (horiz ? 0 : k);
-                        int c = col + (horiz ? k : 0);
-                        grid[r][c] = SHIP;
-                        s.addCell(r, c);
-                    }
-                    ships.add(s);
-                    placed = true;
-                }
-            }
-            if (!placed) {
-                clear();
-                placeShipsRandomly(shipSizes);
-                return;
-            }
+        FleetPlacer placer = PLACERS.get();
+        if (placer == null || placer.n != n || placer.fleet != shipSizes && !Arrays.equals(placer.fleet, shipSizes)) {
+            placer = new FleetPlacer(n, shipSizes);
+            PLACERS.set(placer);
+        }
+        PlacementEvent ev = new PlacementEvent();
+        boolean metrics = MetricsRegistry.enabled();
+        long start = metrics ? System.nanoTime() : 0;
+        ev.begin();
+        placer.reset(haloMask);
+        int[] slots = placer.place(rnd);
+        ev.end();
+        if (metrics) {
+            PLACE_NANOS.record(System.nanoTime() - start);
+            PLACE_ATTEMPTS.record(placer.lastNodes());
+            PLACE_RESTARTS.record(placer.lastBacktracks());
+        }
+        if (ev.shouldCommit()) {
+            ev.ships = shipSizes.length;
+            ev.attempts = placer.lastNodes();
+            ev.restarts = placer.lastBacktracks();
+            ev.commit();
+        }
+        for (int i = 0; i < shipSizes.length; i++) {
+            int slot = slots[i];
+            placeShip(FleetPlacer.slotRow(slot, n), FleetPlacer.slotCol(slot, n), shipSizes[i], FleetPlacer.slotHoriz(slot));
+        }
+    }
+
+    /** Завантажує готову розстановку (порядок кораблів - як у codec.getFleet()) за O(розміру флоту). */
+    public void loadLayout(LayoutCodec codec, long[] layout) {
+        clear();
+        int[] fleet = codec.getFleet();
+        for (int i = 0; i < fleet.length; i++) {
+            int slot = codec.slot(layout, i);
+            placeShip(FleetPlacer.slotRow(slot, n), FleetPlacer.slotCol(slot, n), fleet[i], FleetPlacer.slotHoriz(slot));
         }
     }
 
     public boolean allShipsSunk() {
-        for (Ship s : ships) if (!s.isSunk()) return false;
-        return true;
+        return hitMask.sameAs(shipMask);
     }
 
-    public Point nextAIMove() {
-        // 1) Зібрати розміри кораблів, що ще не потоплені
-        List<Integer> remaining = new ArrayList<>();
-        for (Ship s : ships) {
-            if (!s.isSunk()) remaining.add(s.getSize()); // ЗМІНА: Використовується getSize()
-        }
-        // Якщо немає інформації про власні кораблі (наприклад перед початком),
-        // використаємо стандартний набір (shipSizes)
-        if (remaining.isEmpty()) {
-            for (int sz : shipSizes) remaining.add(sz);
-        }
-
-        // 2) Знайти всі "неприсвоєні" попадання (х* на полі - попадання в корабель, який ще не потоплений)
-        List<Point> unresolvedHits = unresolvedHits();
-        // 3) Побудувати матрицю ймовірностей (цілісні лічильники)
-        int[][] heat = computeProbabilityGrid(remaining, unresolvedHits);
-        // 4) Вибрати клітину з максимальною вагою, яка ще не простріляна
-        int bestR = -1, bestC = -1;
-        int bestVal = -1;
-        for (int r = 0; r < n; r++) {
-            for (int c = 0; c < n; c++) {
-                if (shot[r][c]) continue;
-                if (heat[r][c] > bestVal) {
-                    bestVal = heat[r][c];
-                    bestR = r; bestC = c;
-                }
-            }
+    /** Генератор для наступних розстановок і ходів AI (наприклад, із seed нової гри). */
+    public void setRandom(RandomGenerator rnd) { this.rnd = rnd;
+    }
+
+    public void setTargeting(Targeting targeting) { this.targeting = targeting;
+    }
+    public void setSampler(MonteCarloSampler sampler) { this.sampler = sampler;
+    }
+
+    /** Дебютна книга для nextAIMove (null - без книги); ходи книги - ходи точного підрахунку. */
+    public void setOpeningBook(OpeningBook book) {
+        if (book != null && !book.matches(this)) throw new IllegalArgumentException("Книга для іншого поля або флоту");
+        this.openingBook = book;
+    }
+
+    /** Точний перебір для ендшпілю в nextAIMove (null - без нього). */
+    public void setEndgameSolver(EndgameSolver endgame) { this.endgame = endgame;
+    }
+
+    private boolean useSampling() {
+        return targeting == Targeting.SAMPLING || targeting == Targeting.AUTO && n <= SAMPLING_MAX_SIZE;
+    }
+
+    private MonteCarloSampler sampler() {
+        if (sampler != null) return sampler;
+        synchronized (Board.class) {
+            if (defaultSampler == null) defaultSampler = new MonteCarloSampler();
+            return defaultSampler;
         }
+    }
 
-        // 5) Якщо нічого не знайдено (bestVal == 0 або -1), fallback:
-        if (bestVal <= 0) {
-            // шахматний варіант (для ефективності проти 2-3 клітинних кораблів)
-
-            List<Point> cand = new ArrayList<>();
-            for (int r = 0; r < n; r++)
-                for (int c = 0; c < n; c++)
-                    if (!shot[r][c] && (r + c) % 2 == 0) cand.add(new Point(r, c));
-            if (!cand.isEmpty()) return cand.get(rnd.nextInt(cand.size()));
-            // інакше будь-яка вільна
-            List<Point> all = new ArrayList<>();
-            for (int r = 0; r < n; r++) for (int c = 0; c < n; c++) if (!shot[r][c]) all.add(new Point(r, c));
-            return all.get(rnd.nextInt(all.size()));
-        }
-
-        return new Point(bestR, bestC);
-    }
-
-    private List<Point> unresolvedHits() {
-        List<Point> res = new ArrayList<>();
-        for (int r = 0; r < n; r++) {
-            for (int c = 0; c < n; c++) {
-                if (shot[r][c] && grid[r][c] == SHIP) {
-                    for (Ship s : ships) {
-                        if (s.contains(r, c)) {
-                            boolean isShipSunk = s.isSunk();
-                            if (!isShipSunk) {
-                                res.add(new Point(r, c));
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
+    /** Вбудований AI по цьому полю; для порівняння стратегій див. battleship.ai.TargetingStrategy. */
+    public Point nextAIMove() {
+        AIMoveEvent ev = new AIMoveEvent();
+        boolean metrics = MetricsRegistry.enabled();
+        if (!metrics && !ev.isEnabled()) return chooseMove(null);
+        long start = System.nanoTime();
+        ev.begin();
+        Point p = chooseMove(ev);
+        ev.end();
+        if (metrics) {
+            MOVE_NANOS.record(System.nanoTime() - start);
+            if (ev.bookNanos != 0) BOOK_NANOS.record(ev.bookNanos);
+            if (ev.endgameNanos != 0) ENDGAME_NANOS.record(ev.endgameNanos);
+            if (ev.remainingNanos != 0) REMAINING_NANOS.record(ev.remainingNanos);
+            if (ev.gridNanos != 0) GRID_NANOS.record(ev.gridNanos);
+            if (ev.argmaxNanos != 0) ARGMAX_NANOS.record(ev.argmaxNanos);
         }
-        return res;
+        if (ev.shouldCommit()) {
+            ev.shots = shotLen;
+            ev.unresolvedHits = hitMask.cardinality() - sunkMask.cardinality();
+            ev.commit();
+        }
+        return p;
     }
 
-    private int[][] computeProbabilityGrid(List<Integer> remainingShipSizes, List<Point> unresolvedHits) {
-        int[][] heat = new int[n][n];
-
-        for (int size : remainingShipSizes) {
-            // горизонтальні
-            for (int r = 0; r < n; r++) {
-                for (int c = 0; c + size - 1 < n; c++) {
-
-                    boolean ok = true;
-                    boolean coversUnresolved = unresolvedHits.isEmpty() ? true : false;
-                    for (int k = 0; k < size; k++) {
-                        int rr = r;
-                        int cc = c + k;
-                        if (shot[rr][cc] && grid[rr][cc] != SHIP) { ok = false;
-                            break; }
-                        if (shot[rr][cc] && grid[rr][cc] == SHIP) {
-
-                            Ship sh = shipContaining(rr, cc);
-                            if (sh != null && sh.isSunk()) { ok = false; break;
-                            }
-                        }
-                        for (Point hp : unresolvedHits) {
-
-                            if (hp.x == rr && hp.y == cc) { coversUnresolved = true;
-                            }
-                        }
-                    }
-                    if (!ok) continue;
-                    if (!unresolvedHits.isEmpty() && !coversUnresolved) continue;
-                    for (int k = 0; k < size; k++) {
-                        heat[r][c + k]++;
-                    }
+    // ev == null - без вимірювань; інакше тривалості етапів пишуться в ev
+    private Point chooseMove(AIMoveEvent ev) {
+        long t = ev != null ? System.nanoTime() : 0;
+        if (openingBook != null && !ships.isEmpty()) {
+            Point p = openingBook.move(this);
+            if (ev != null) {
+                long now = System.nanoTime();
+                ev.bookNanos = now - t;
+                t = now;
+                if (p != null) ev.source = "book";
+            }
+            if (p != null) return p;
+        }
+        if (endgame != null && !ships.isEmpty() && !allShipsSunk()) {
+            // завеликий для перебору стан - звичайна оцінка нижче
+            Point p = endgame.bestMove(this);
+            if (ev != null) {
+                long now = System.nanoTime();
+                ev.endgameNanos = now - t;
+                t = now;
+                if (p != null) ev.source = "endgame";
+            }
+            if (p != null) return p;
+        }
+        if (!ships.isEmpty() && !allShipsSunk() && useSampling()) {
+            // якщо жодна вибірка не підійшла - точний підрахунок нижче
+            int[] sampled = sampler().estimate(this);
+            if (ev != null) {
+                long now = System.nanoTime();
+                ev.gridNanos = now - t;
+                t = now;
+            }
+            if (sampled != null) {
+                Point p = bestMove(sampled);
+                if (ev != null) {
+                    ev.argmaxNanos = System.nanoTime() - t;
+                    ev.source = "sampling";
                 }
+                return p;
             }
-            // вертикальні
-            for (int r = 0; r + size - 1 < n; r++) {
-                for (int c = 0; c < n; c++) {
-
-                    boolean ok = true;
-                    boolean coversUnresolved = unresolvedHits.isEmpty() ? true : false;
-                    for (int k = 0; k < size; k++) {
-                        int rr = r + k;
-                        int cc = c;
-                        if (shot[rr][cc] && grid[rr][cc] != SHIP) { ok = false; break;
-                        }
-                        if (shot[rr][cc] && grid[rr][cc] == SHIP) {
-                            Ship sh = shipContaining(rr, cc);
-                            if (sh != null && sh.isSunk()) { ok = false; break;
-                            }
-                        }
-                        for (Point hp : unresolvedHits) {
-                            if (hp.x == rr && hp.y == cc) { coversUnresolved = true; }
-                        }
-                    }
-                    if (!ok) continue;
-                    if (!unresolvedHits.isEmpty() && !coversUnresolved) continue;
-                    for (int k = 0; k < size; k++) {
-                        heat[r + k][c]++;
-                    }
+        }
+        if (!ships.isEmpty() && !allShipsSunk()) {
+            // звичайна гра: карта оновлюється після кожного пострілу
+            if (heatMap == null) {
+                int[] remaining = remainingShipSizes();
+                if (ev != null) {
+                    long now = System.nanoTime();
+                    ev.remainingNanos = now - t;
+                    t = now;
+                }
+                heatMap = HeatMap.of(this, remaining);
+                if (ev != null) {
+                    long now = System.nanoTime();
+                    ev.gridNanos += now - t;
+                    t = now;
                 }
             }
+            Point p = heatMap.bestMove(this, rnd);
+            if (ev != null) {
+                ev.argmaxNanos = System.nanoTime() - t;
+                ev.source = "heatmap";
+            }
+            return p;
+        }
+        int[] heat = fullProbabilityGrid();
+        if (ev != null) {
+            long now = System.nanoTime();
+            ev.gridNanos += now - t;
+            t = now;
+        }
+        Point p = bestMove(heat);
+        if (ev != null) {
+            ev.argmaxNanos = System.nanoTime() - t;
+            ev.source = "full";
         }
+        return p;
+    }
 
-        return heat;
+    /** Повний перерахунок карти ймовірностей (еталон для HeatMap). */
+    int[] fullProbabilityGrid() { return HeatMap.full(this);
     }
 
-    private Ship shipContaining(int r, int c) {
-        for (Ship s : ships) {
-            if (s.contains(r, c)) return s;
-        }
-        return null;
+    private Point bestMove(int[] heat) { return HeatMap.bestMove(heat, this, rnd);
     }
-}
\ No newline at end of file
+}
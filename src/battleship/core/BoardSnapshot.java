@@ -0,0 +1,53 @@
+package battleship.core;
+
+import java.util.Arrays;
+
+/** Знімок видимого стану поля на момент створення; поле після цього можна змінювати. */
+public final class BoardSnapshot implements BoardView {
+    private final Board source;
+    private final int generation;
+    private final int n;
+    private final int[] shipSizes;
+    private final int[] remaining;
+    private final BitGrid shotMask, hitMask, sunkMask;
+    private final int[] shots;
+
+    BoardSnapshot(Board b, int[] shotLog, int shotLen) {
+        source = b;
+        generation = b.generation();
+        n = b.getSize();
+        shipSizes = b.getShipSizes().clone();
+        remaining = b.remainingShipSizes().clone();
+        shotMask = b.shotMask.copy();
+        hitMask = b.hitMask.copy();
+        sunkMask = b.sunkMask.copy();
+        shots = Arrays.copyOf(shotLog, shotLen);
+    }
+
+    public int getSize() { return n;
+    }
+    public int[] getShipSizes() { return shipSizes;
+    }
+    public int[] remainingShipSizes() { return remaining;
+    }
+    public boolean isShot(int r, int c) { return shotMask.get(r * n + c);
+    }
+    public boolean isHit(int r, int c) { return hitMask.get(r * n + c);
+    }
+    public boolean isSunk(int r, int c) { return sunkMask.get(r * n + c);
+    }
+    public BitGrid shotMask() { return shotMask;
+    }
+    public BitGrid hitMask() { return hitMask;
+    }
+    public BitGrid sunkMask() { return sunkMask;
+    }
+    public int shotCount() { return shots.length;
+    }
+    public int shotAt(int i) { return shots[i];
+    }
+    public Object source() { return source;
+    }
+    public int generation() { return generation;
+    }
+}
@@ -0,0 +1,38 @@
+package battleship.core;
+
+/**
+ * Те, що бачить гравець, який стріляє по полю: постріли, попадання, потоплені кораблі
+ * та склад флоту. Розстановка непотоплених кораблів сюди не входить.
+ * Маски повертаються без копіювання - їх не можна змінювати.
+ */
+public interface BoardView {
+    int getSize();
+
+    /** Повний склад флоту. */
+    int[] getShipSizes();
+
+    /** Розміри ще не потоплених кораблів. */
+    int[] remainingShipSizes();
+
+    boolean isShot(int r, int c);
+    boolean isHit(int r, int c);
+    boolean isSunk(int r, int c);
+
+    BitGrid shotMask();
+    BitGrid hitMask();
+    BitGrid sunkMask();
+
+    /** Кількість прострілених клітин, включно з відкритими навколо потоплених кораблів. */
+    int shotCount();
+
+    /** Клітина (r * n + c), прострілена i-тою за порядком. */
+    int shotAt(int i);
+
+    /** Поле, яке описує цей вигляд: знімки одного поля повертають те саме поле. */
+    default Object source() { return this;
+    }
+
+    /** Змінюється, коли поле очищують і журнал пострілів починається заново. */
+    default int generation() { return 0;
+    }
+}
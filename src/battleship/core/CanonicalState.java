@@ -0,0 +1,110 @@
+package battleship.core;
+
+import java.util.Arrays;
+
+/**
+ * Видимий стан поля (постріли, попадання, потоплені клітини), зведений до найменшого
+ * з восьми симетричних варіантів (див. Symmetry). Симетричні стани мають однаковий
+ * канонічний вигляд, тож кеш або книга зберігають їх одним записом, а хід переводиться
+ * назад в координати поля оберненим перетворенням.
+ *
+ * Кожна маска перепаковується по рядках (рядок - n біт одного long) разом з
+ * транспонованою копією, після чого симетрії - це перестановка рядків і Long.reverse.
+ * Тому розмір поля обмежений 64.
+ */
+public final class CanonicalState {
+    public static final int MAX_SIZE = 64;
+
+    private final int n;
+    // перетворення t: канонічний стан = t(стан поля)
+    private final int transform;
+    // рядки масок пострілів, попадань і потоплених клітин після t
+    private final long[] rows;
+    private final long hash;
+
+    private CanonicalState(int n, int transform, long[] rows) {
+        this.n = n;
+        this.transform = transform;
+        this.rows = rows;
+        long h = n;
+        for (long w : rows) h = h * 0x9E3779B97F4A7C15L + w;
+        hash = mix(h);
+    }
+
+    public static CanonicalState of(BoardView v) {
+        int n = v.getSize();
+        if (n > MAX_SIZE) throw new IllegalArgumentException("Канонічний вигляд - для полів до " + MAX_SIZE + ": " + n);
+        BitGrid hit = v.hitMask(), sunk = v.sunkMask();
+        // рядки масок пострілів, попадань і потоплених клітин: [0] - як є, [1] - з дзеркальними
+        // стовпцями, [2] і [3] - те саме для транспонованого поля. Будуються за журналом
+        // пострілів, тож у дебюті це лише кілька операцій
+        long[][] rows = new long[4][3 * n];
+        long[] plain = rows[0], swapped = rows[2];
+        for (int k = 0; k < v.shotCount(); k++) {
+            int cell = v.shotAt(k), r = cell / n, c = cell % n;
+            plain[r] |= 1L << c;
+            swapped[c] |= 1L << r;
+            if (!hit.get(cell)) continue;
+            plain[n + r] |= 1L << c;
+            swapped[n + c] |= 1L << r;
+            if (!sunk.get(cell)) continue;
+            plain[2 * n + r] |= 1L << c;
+            swapped[2 * n + c] |= 1L << r;
+        }
+        for (int i = 0; i < 3 * n; i++) {
+            rows[1][i] = Long.reverse(plain[i]) >>> (64 - n);
+            rows[3][i] = Long.reverse(swapped[i]) >>> (64 - n);
+        }
+        int best = 0;
+        for (int t = 1; t < Symmetry.COUNT; t++) if (compare(rows, t, best, n) < 0) best = t;
+        long[] canonical = new long[3 * n];
+        for (int i = 0; i < 3 * n; i++) canonical[i] = row(rows, best, i, n);
+        return new CanonicalState(n, best, canonical);
+    }
+
+    // рядок i (маска i / n) варіанта t
+    private static long row(long[][] rows, int t, int i, int n) {
+        int r = i % n;
+        return rows[(Symmetry.swapsAxes(t) ? 2 : 0) + (t >> 1 & 1)][i - r + ((t & 1) != 0 ? n - 1 - r : r)];
+    }
+
+    // лексикографічне порівняння варіантів без побудови: зазвичай вирішують перші рядки
+    private static int compare(long[][] rows, int t1, int t2, int n) {
+        for (int i = 0; i < 3 * n; i++) {
+            long a = row(rows, t1, i, n), b = row(rows, t2, i, n);
+            if (a != b) return Long.compareUnsigned(a, b);
+        }
+        return 0;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public int getSize() { return n;
+    }
+    public int transform() { return transform;
+    }
+    /** 64-бітний хеш канонічного вигляду. */
+    public long hash() { return hash;
+    }
+
+    /** Клітина поля в канонічних координатах. */
+    public int toCanonical(int cell) { return Symmetry.cell(transform, cell, n);
+    }
+
+    /** Канонічна клітина в координатах поля. */
+    public int fromCanonical(int cell) { return Symmetry.cell(Symmetry.inverse(transform), cell, n);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CanonicalState s && hash == s.hash && n == s.n && Arrays.equals(rows, s.rows);
+    }
+
+    @Override
+    public int hashCode() { return (int) (hash ^ hash >>> 32);
+    }
+}
@@ -0,0 +1,45 @@
+package battleship.core;
+
+import java.util.Arrays;
+
+/**
+ * Клітини поля, що змінились з останнього clear(): постріли, нові кораблі, потоплення.
+ * Кожна клітина записується один раз. Після clear() або resetShots поля позначається
+ * вся площа (isAll), щоб не зберігати n * n записів.
+ */
+public final class CellChanges {
+    private final BitGrid seen;
+    private int[] cells = new int[16];
+    private int len;
+    private boolean all = true;
+
+    CellChanges(int n) { seen = new BitGrid(n);
+    }
+
+    void add(int cell) {
+        if (all || seen.get(cell)) return;
+        seen.set(cell);
+        if (len == cells.length) cells = Arrays.copyOf(cells, len * 2);
+        cells[len++] = cell;
+    }
+
+    void addAll() {
+        clear();
+        all = true;
+    }
+
+    /** Змінилось усе поле - потрібне повне перемалювання. */
+    public boolean isAll() { return all;
+    }
+    public int count() { return len;
+    }
+    /** k-та змінена клітина (r * n + c). */
+    public int cell(int k) { return cells[k];
+    }
+
+    public void clear() {
+        for (int k = 0; k < len; k++) seen.clear(cells[k]);
+        len = 0;
+        all = false;
+    }
+}
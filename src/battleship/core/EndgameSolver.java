@@ -0,0 +1,259 @@
+package battleship.core;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Точні ймовірності клітин в ендшпілі: перебір усіх розстановок непотоплених кораблів,
+ * що узгоджуються з пострілами. Кораблі не заходять на промахи, не торкаються потоплених
+ * і один одного (як у canPlace), накривають усі непотоплені попадання і не складаються
+ * лише з попадань - такий корабель був би вже потоплений. Усі такі розстановки вважаються
+ * рівноймовірними, на відміну від HeatMap, де кожен корабель рахується окремо.
+ *
+ * Стан пошуку - заблоковані клітини, ще не накриті попадання і кораблі, що лишились;
+ * однакові стани, досягнуті різними шляхами, рахуються один раз. Спочатку кораблі
+ * ставляться на перше ненакрите попадання, потім решта - від найбільших, однакові за
+ * зростанням положення, тож кожна розстановка трапляється рівно один раз.
+ * Якщо кораблів більше за maxShips або станів більше за бюджет, solve повертає null
+ * і хід лишається евристиці. Екземпляр не потокобезпечний.
+ */
+public final class EndgameSolver {
+    public static final int DEFAULT_MAX_SHIPS = 3;
+    public static final long DEFAULT_NODE_BUDGET = 5_000;
+
+    private final int maxShips;
+    private final long nodeBudget;
+
+    // поточна задача
+    private int n;
+    private int[] sizes;
+    private final Map<State, Long> memo = new HashMap<>();
+    private long nodes;
+    private boolean aborted;
+
+    // статистика останнього виклику
+    private long lastNodes;
+    private long lastLayouts;
+
+    public EndgameSolver(int maxShips, long nodeBudget) {
+        if (maxShips < 1 || nodeBudget < 1) throw new IllegalArgumentException("Ліміти розв'язувача мають бути додатні");
+        this.maxShips = maxShips;
+        this.nodeBudget = nodeBudget;
+    }
+
+    public EndgameSolver() {
+        this(DEFAULT_MAX_SHIPS, DEFAULT_NODE_BUDGET);
+    }
+
+    /** Станів, розкритих останнім викликом. */
+    public long lastNodes() { return lastNodes;
+    }
+    /** Кількість узгоджених розстановок в останньому розв'язаному стані. */
+    public long lastLayouts() { return lastLayouts;
+    }
+
+    /**
+     * Скільки узгоджених розстановок накриває кожну клітину, загальна кількість - в [n * n];
+     * null, якщо стан завеликий для перебору або розстановок немає.
+     */
+    public long[] solve(BoardView v) {
+        int[] remaining = v.remainingShipSizes();
+        lastNodes = 0;
+        lastLayouts = 0;
+        if (remaining.length == 0 || remaining.length > maxShips) return null;
+        n = v.getSize();
+        int[] sorted = remaining.clone();
+        Arrays.sort(sorted);
+        int[] distinct = new int[sorted.length], left = new int[sorted.length];
+        int d = 0;
+        for (int k = sorted.length - 1; k >= 0; k--) {
+            if (d == 0 || distinct[d - 1] != sorted[k]) distinct[d++] = sorted[k];
+            left[d - 1]++;
+        }
+        sizes = Arrays.copyOf(distinct, d);
+
+        // промахи, потоплені кораблі і клітини навколо них
+        BitGrid shot = v.shotMask(), hit = v.hitMask(), sunk = v.sunkMask();
+        BitGrid blocked = new BitGrid(n), open = new BitGrid(n);
+        for (int w = 0; w < blocked.words.length; w++) {
+            blocked.words[w] = shot.words[w] & ~hit.words[w];
+            open.words[w] = hit.words[w] & ~sunk.words[w];
+        }
+        for (int i = sunk.nextSetBit(0); i >= 0; i = sunk.nextSetBit(i + 1)) halo(blocked, i, 1, 1);
+        State root = new State(blocked, open, Arrays.copyOf(left, d), -1);
+
+        memo.clear();
+        nodes = 0;
+        aborted = false;
+        try {
+            long total = root.open.intersects(root.blocked) ? 0 : count(root);
+            lastNodes = nodes;
+            if (aborted || total == 0) return null;
+            lastLayouts = total;
+            return cellCounts(root, total);
+        } catch (ArithmeticException e) {
+            return null;
+        } finally {
+            memo.clear();
+        }
+    }
+
+    /** Непрострілена клітина з найбільшою точною ймовірністю (перша за рядками) або null. */
+    public Point bestMove(BoardView v) {
+        long[] counts = solve(v);
+        if (counts == null) return null;
+        BitGrid shot = v.shotMask();
+        int best = -1;
+        for (int i = 0; i < n * n; i++) {
+            if (!shot.get(i) && counts[i] > 0 && (best < 0 || counts[i] > counts[best])) best = i;
+        }
+        return best < 0 ? null : new Point(best / n, best % n);
+    }
+
+    // кількість розстановок решти кораблів зі стану s
+    private long count(State s) {
+        Long known = memo.get(s);
+        if (known != null) return known;
+        if (++nodes > nodeBudget) {
+            aborted = true;
+            return 0;
+        }
+        long[] total = {0};
+        expand(s, (child, start, size, step) -> {
+            if (!aborted) total[0] = Math.addExact(total[0], child == null ? 1 : count(child));
+        });
+        memo.put(s, total[0]);
+        return total[0];
+    }
+
+    // другий прохід: кількість шляхів до кожного стану, шар за шаром (шар - поставлені кораблі)
+    private long[] cellCounts(State root, long total) {
+        long[] cells = new long[n * n + 1];
+        cells[n * n] = total;
+        Map<State, Long> layer = new HashMap<>();
+        layer.put(root, 1L);
+        while (!layer.isEmpty()) {
+            Map<State, Long> next = new HashMap<>();
+            for (Map.Entry<State, Long> e : layer.entrySet()) {
+                long ways = e.getValue();
+                expand(e.getKey(), (child, start, size, step) -> {
+                    if (child == null) return;
+                    long below = memo.get(child);
+                    if (below == 0) return;
+                    long layouts = Math.multiplyExact(ways, below);
+                    for (int k = 0, i = start; k < size; k++, i += step) cells[i] = Math.addExact(cells[i], layouts);
+                    next.merge(child, ways, Math::addExact);
+                });
+            }
+            layer = next;
+        }
+        return cells;
+    }
+
+    @FunctionalInterface
+    private interface Move {
+        void accept(State child, int start, int size, int step);
+    }
+
+    private void expand(State s, Move out) {
+        int d = sizes.length;
+        int first = 0;
+        while (first < d && s.left[first] == 0) first++;
+        if (first == d) {
+            // усі кораблі стоять: розстановка годиться, лише якщо попадань не лишилось
+            if (s.open.isEmpty()) out.accept(null, 0, 0, 0);
+            return;
+        }
+        int h = s.open.nextSetBit(0);
+        if (h >= 0) {
+            // перше ненакрите попадання: будь-який корабель, що лишився, у будь-якому положенні через нього
+            int r = h / n, c = h % n;
+            for (int k = first; k < d; k++) {
+                if (s.left[k] == 0) continue;
+                int size = sizes[k];
+                for (int c0 = Math.max(0, c - size + 1); c0 <= c && c0 + size <= n; c0++)
+                    place(s, k, r * n + c0, 1, -1, out);
+                if (size == 1) continue;
+                for (int r0 = Math.max(0, r - size + 1); r0 <= r && r0 + size <= n; r0++)
+                    place(s, k, r0 * n + c, n, -1, out);
+            }
+            return;
+        }
+        // попадань немає: найбільший корабель, однакові - за зростанням положення
+        int size = sizes[first];
+        int last = 2 * n * n;
+        for (int slot = s.minSlot + 1; slot < last; slot++) {
+            boolean horiz = FleetPlacer.slotHoriz(slot);
+            if (!horiz && size == 1) continue;
+            int r = FleetPlacer.slotRow(slot, n), c = FleetPlacer.slotCol(slot, n);
+            if (horiz ? c + size > n : r + size > n) continue;
+            place(s, first, slot >> 1, horiz ? 1 : n, s.left[first] > 1 ? slot : -1, out);
+        }
+    }
+
+    // корабель розміру sizes[k] з клітини start з кроком step, якщо його можна поставити
+    private void place(State s, int k, int start, int step, int minSlot, Move out) {
+        int size = sizes[k];
+        int end = start + (size - 1) * step;
+        if (step == 1 ? s.blocked.anyInRange(start, end + 1) : anyBlocked(s.blocked, start, size, step)) return;
+        int hits = 0;
+        for (int j = 0, i = start; j < size; j++, i += step) if (s.open.get(i)) hits++;
+        if (hits == size) return;
+
+        BitGrid blocked = s.blocked.copy(), open = s.open.copy();
+        for (int j = 0, i = start; j < size; j++, i += step) open.clear(i);
+        halo(blocked, start, step == 1 ? size : 1, step == 1 ? 1 : size);
+        // ненакрите попадання поруч з кораблем уже нічим не накрити
+        if (open.intersects(blocked)) return;
+        int[] left = s.left.clone();
+        left[k]--;
+        out.accept(new State(blocked, open, left, minSlot), start, size, step);
+    }
+
+    private static boolean anyBlocked(BitGrid blocked, int start, int size, int step) {
+        for (int j = 0, i = start; j < size; j++, i += step) if (blocked.get(i)) return true;
+        return false;
+    }
+
+    // прямокутник w x h з кутом у клітині start разом з клітинами навколо нього
+    private void halo(BitGrid grid, int start, int w, int h) {
+        int row = start / n, col = start % n;
+        int r0 = Math.max(0, row - 1), r1 = Math.min(n - 1, row + h);
+        int c0 = Math.max(0, col - 1), c1 = Math.min(n - 1, col + w);
+        for (int r = r0; r <= r1; r++) grid.setRange(r * n + c0, r * n + c1 + 1);
+    }
+
+    private static final class State {
+        final BitGrid blocked;
+        final BitGrid open;
+        // скільки кораблів кожного розміру ще не поставлено
+        final int[] left;
+        // найменше положення для наступного корабля того ж розміру або -1
+        final int minSlot;
+        final int hash;
+
+        State(BitGrid blocked, BitGrid open, int[] left, int minSlot) {
+            this.blocked = blocked;
+            this.open = open;
+            this.left = left;
+            this.minSlot = minSlot;
+            long h = minSlot;
+            for (long w : blocked.words) h = (h ^ w) * 0x9E3779B97F4A7C15L;
+            for (long w : open.words) h = (h ^ w) * 0x9E3779B97F4A7C15L;
+            h = h * 31 + Arrays.hashCode(left);
+            hash = (int) (h ^ h >>> 32);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof State s && hash == s.hash && minSlot == s.minSlot && Arrays.equals(left, s.left)
+                    && blocked.sameAs(s.blocked) && open.sameAs(s.open);
+        }
+
+        @Override
+        public int hashCode() { return hash;
+        }
+    }
+}
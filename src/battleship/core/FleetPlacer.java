@@ -0,0 +1,302 @@
+package battleship.core;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Конструктивна розстановка флоту.
+ * Для кожного розміру корабля тримає множину допустимих положень (клітина, орієнтація),
+ * бере положення рівномірно з цієї множини і після кожного кроку оновлює лише положення,
+ * що проходять через щойно заблоковані клітини. При глухому куті - повернення на крок назад.
+ * Положення (slot) кодується як (r * n + c) * 2 + (горизонтально ? 0 : 1).
+ */
+public final class FleetPlacer {
+    public static final long DEFAULT_NODE_BUDGET = 200_000;
+    // до якої площі поля тримати копію стану порожнього поля (вона подвоює пам'ять)
+    static final int SNAPSHOT_MAX_CELLS = 256 * 256;
+
+    final int n;
+    final int[] fleet;
+    // індекси флоту від найбільшого корабля до найменшого
+    private final int[] order;
+    // різні розміри за спаданням; sizeOf - номер розміру для кожного корабля флоту
+    private final int[] sizes;
+    private final int[] sizeOf;
+    // [розмір][slot]: скільки заблокованих клітин накриває положення
+    private final byte[][] blockCount;
+    // множина допустимих положень: items[0..count) і зворотний індекс pos
+    private final int[][] items;
+    private final int[][] pos;
+    private final int[] count;
+    private final BitGrid blocked;
+    // стан для порожнього поля, щоб не перераховувати його щоразу
+    private final byte[][] emptyBlockCount;
+    private final int[][] emptyItems;
+    private final int[][] emptyPos;
+    private final int[] emptyCount;
+    // журнал для відкату: клітина << 6 | перший розмір, для якого вона врахована
+    private int[] log = new int[64];
+    private int logLen;
+    // заборонені положення-близнюки: slot << 6 | розмір
+    private int[] bans = new int[16];
+    private int banLen;
+    private long nodeBudget = DEFAULT_NODE_BUDGET;
+    private long nodes;
+    private long backtracks;
+
+    public FleetPlacer(int n, int[] fleet) {
+        this.n = n;
+        this.fleet = fleet;
+        checkFeasible(n, fleet);
+
+        Integer[] idx = new Integer[fleet.length];
+        for (int i = 0; i < idx.length; i++) idx[i] = i;
+        Arrays.sort(idx, (a, b) -> fleet[b] - fleet[a]);
+        order = new int[fleet.length];
+        for (int i = 0; i < idx.length; i++) order[i] = idx[i];
+
+        // різні розміри за спаданням, у тому ж порядку, в якому ставляться кораблі
+        int[] distinct = new int[fleet.length];
+        int d = 0;
+        sizeOf = new int[fleet.length];
+        for (int i : order) {
+            if (d == 0 || distinct[d - 1] != fleet[i]) distinct[d++] = fleet[i];
+            sizeOf[i] = d - 1;
+        }
+        sizes = Arrays.copyOf(distinct, d);
+        blockCount = new byte[d][2 * n * n];
+        items = new int[d][2 * n * n];
+        pos = new int[d][2 * n * n];
+        count = new int[d];
+        blocked = new BitGrid(n);
+        reset(blocked);
+        if (n * n > SNAPSHOT_MAX_CELLS) {
+            emptyBlockCount = null;
+            emptyItems = null;
+            emptyPos = null;
+            emptyCount = null;
+            return;
+        }
+        emptyBlockCount = new byte[d][];
+        emptyItems = new int[d][];
+        emptyPos = new int[d][];
+        emptyCount = count.clone();
+        for (int s = 0; s < d; s++) {
+            emptyBlockCount[s] = blockCount[s].clone();
+            emptyItems[s] = items[s].clone();
+            emptyPos[s] = pos[s].clone();
+        }
+    }
+
+    /**
+     * Швидка перевірка до пошуку. Кожен корабель разом з ореолом праворуч і знизу займає
+     * прямокутник (size + 1) x 2 у полі (n + 1) x (n + 1), і ці прямокутники не перетинаються.
+     */
+    static void checkFeasible(int n, int[] fleet) {
+        long area = 0;
+        for (int size : fleet) {
+            if (size < 1 || size > n || size > Ship.MAX_SIZE)
+                throw new IllegalArgumentException("Корабель розміром " + size + " не вміщається на полі " + n + "x" + n);
+            area += 2L * (size + 1);
+        }
+        if (area > (long) (n + 1) * (n + 1))
+            throw new IllegalArgumentException("Флот " + Arrays.toString(fleet) + " неможливо розставити на полі " + n + "x" + n);
+    }
+
+    public static int slotRow(int slot, int n) { return (slot >> 1) / n;
+    }
+    public static int slotCol(int slot, int n) { return (slot >> 1) % n;
+    }
+    public static boolean slotHoriz(int slot) { return (slot & 1) == 0;
+    }
+
+    public void setNodeBudget(long nodeBudget) { this.nodeBudget = nodeBudget;
+    }
+
+    /** Скільки положень перепробувала остання розстановка. */
+    public long lastNodes() { return nodes;
+    }
+    /** Скільки разів остання розстановка поверталася на крок назад. */
+    public long lastBacktracks() { return backtracks;
+    }
+
+    /** Починає з поля, де клітини initial (ореоли кораблів, промахи) вже зайняті. */
+    public void reset(BitGrid initial) {
+        if (initial != blocked) blocked.copyFrom(initial);
+        logLen = 0;
+        if (emptyCount != null && blocked.isEmpty()) {
+            for (int s = 0; s < sizes.length; s++) {
+                int len = 2 * n * n;
+                System.arraycopy(emptyBlockCount[s], 0, blockCount[s], 0, len);
+                System.arraycopy(emptyItems[s], 0, items[s], 0, len);
+                System.arraycopy(emptyPos[s], 0, pos[s], 0, len);
+                count[s] = emptyCount[s];
+            }
+            return;
+        }
+        for (int s = 0; s < sizes.length; s++) {
+            int size = sizes[s];
+            byte[] bc = blockCount[s];
+            int[] it = items[s], ps = pos[s];
+            Arrays.fill(ps, -1);
+            boolean none = blocked.isEmpty();
+            int cnt = 0;
+            for (int r = 0; r < n; r++) {
+                for (int c = 0; c < n; c++) {
+                    int cell = r * n + c;
+                    if (c + size <= n) {
+                        int b = 0;
+                        if (!none) for (int k = 0; k < size; k++) if (blocked.get(cell + k)) b++;
+                        bc[cell * 2] = (byte) b;
+                        if (b == 0) { ps[cell * 2] = cnt; it[cnt++] = cell * 2; }
+                    }
+                    if (size > 1 && r + size <= n) {
+                        int b = 0;
+                        if (!none) for (int k = 0; k < size; k++) if (blocked.get(cell + k * n)) b++;
+                        bc[cell * 2 + 1] = (byte) b;
+                        if (b == 0) { ps[cell * 2 + 1] = cnt; it[cnt++] = cell * 2 + 1; }
+                    }
+                }
+            }
+            count[s] = cnt;
+        }
+    }
+
+    /** Розставляє весь флот; положення повертаються в порядку fleet. */
+    public int[] place(RandomGenerator rnd) {
+        int[] res = tryPlace(rnd);
+        if (res == null)
+            throw new IllegalStateException("Не вдалося розставити флот " + Arrays.toString(fleet) + " за " + nodeBudget + " кроків");
+        return res;
+    }
+
+    /** Як place, але повертає null, якщо розстановки немає або вичерпано бюджет. */
+    public int[] tryPlace(RandomGenerator rnd) {
+        int mark = logLen;
+        int[] out = new int[fleet.length];
+        nodes = 0;
+        backtracks = 0;
+        if (dfs(0, rnd, out)) return out;
+        undo(mark);
+        return null;
+    }
+
+    /**
+     * Прибирає розставлені кораблі, повертаючи стан після останнього reset.
+     * Після успішного place множини для вже розставлених розмірів не оновлюються,
+     * тому наступна розстановка потребує undoAll або reset.
+     */
+    public void undoAll() { undo(0);
+    }
+
+    private boolean dfs(int d, RandomGenerator rnd, int[] out) {
+        if (d == order.length) return true;
+        int s = sizeOf[order[d]];
+        if (count[s] == 0 || ++nodes > nodeBudget) return false;
+
+        int first = items[s][rnd.nextInt(count[s])];
+        if (tryOccupy(first, d, rnd, out)) return true;
+        if (nodes > nodeBudget) return false;
+        backtracks++;
+
+        // повернення: перебрати решту положень у випадковому порядку.
+        // Якщо наступний корабель такого ж розміру, невдале положення забороняється і йому,
+        // інакше ті самі розстановки перебиралися б ще раз у іншому порядку кораблів.
+        boolean twin = d + 1 < order.length && sizeOf[order[d + 1]] == s;
+        int banMark = banLen;
+        if (twin) ban(s, first);
+        int[] cand = Arrays.copyOf(items[s], count[s]);
+        boolean ok = false;
+        for (int m = cand.length; m > 0 && !ok && nodes <= nodeBudget; ) {
+            int j = rnd.nextInt(m);
+            int slot = cand[j];
+            cand[j] = cand[--m];
+            if (slot == first) continue;
+            if (tryOccupy(slot, d, rnd, out)) ok = true;
+            else if (twin) ban(s, slot);
+        }
+        while (banLen > banMark) {
+            int e = bans[--banLen];
+            if (--blockCount[e & 63][e >>> 6] == 0) toggle(e & 63, e >>> 6, false);
+        }
+        return ok;
+    }
+
+    private void ban(int s, int slot) {
+        if (banLen == bans.length) bans = Arrays.copyOf(bans, banLen * 2);
+        bans[banLen++] = slot << 6 | s;
+        if (++blockCount[s][slot] == 1) toggle(s, slot, true);
+    }
+
+    private boolean tryOccupy(int slot, int d, RandomGenerator rnd, int[] out) {
+        int mark = logLen;
+        occupy(slot, fleet[order[d]], sizeOf[order[d]]);
+        // менший корабль поміщається всюди, де і більший, тож достатньо перевірки в dfs
+        if (dfs(d + 1, rnd, out)) {
+            out[order[d]] = slot;
+            return true;
+        }
+        undo(mark);
+        return false;
+    }
+
+    // Розміри, більші за from, вже розставлені: їхні множини більше не потрібні
+    private void occupy(int slot, int size, int from) {
+        int row = slotRow(slot, n), col = slotCol(slot, n);
+        boolean horiz = slotHoriz(slot);
+        int r0 = Math.max(0, row - 1), r1 = Math.min(n - 1, row + (horiz ? 0 : size - 1) + 1);
+        int c0 = Math.max(0, col - 1), c1 = Math.min(n - 1, col + (horiz ? size - 1 : 0) + 1);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * n + c;
+                if (blocked.get(cell)) continue;
+                blocked.set(cell);
+                if (logLen == log.length) log = Arrays.copyOf(log, logLen * 2);
+                log[logLen++] = cell << 6 | from;
+                bump(cell, 1, from);
+            }
+        }
+    }
+
+    private void undo(int mark) {
+        while (logLen > mark) {
+            int e = log[--logLen], cell = e >>> 6;
+            blocked.clear(cell);
+            bump(cell, -1, e & 63);
+        }
+    }
+
+    private void bump(int cell, int delta, int from) {
+        int r = cell / n, c = cell % n;
+        boolean add = delta > 0;
+        for (int s = from; s < sizes.length; s++) {
+            int size = sizes[s];
+            byte[] bc = blockCount[s];
+            int lo = Math.max(0, c - size + 1), hi = Math.min(c, n - size);
+            for (int slot = (r * n + lo) * 2, end = (r * n + hi) * 2; slot <= end; slot += 2) {
+                if (add ? ++bc[slot] == 1 : --bc[slot] == 0) toggle(s, slot, add);
+            }
+            if (size == 1) continue;
+            lo = Math.max(0, r - size + 1);
+            hi = Math.min(r, n - size);
+            for (int slot = (lo * n + c) * 2 + 1, end = (hi * n + c) * 2 + 1, step = 2 * n; slot <= end; slot += step) {
+                if (add ? ++bc[slot] == 1 : --bc[slot] == 0) toggle(s, slot, add);
+            }
+        }
+    }
+
+    // Положення стало недопустимим (remove) або знову допустимим
+    private void toggle(int s, int slot, boolean remove) {
+        int[] it = items[s], ps = pos[s];
+        if (remove) {
+            // на місце видаленого ставимо останнє
+            int p = ps[slot], last = it[--count[s]];
+            it[p] = last;
+            ps[last] = p;
+            ps[slot] = -1;
+        } else {
+            ps[slot] = count[s];
+            it[count[s]++] = slot;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package battleship.core;
+
+import java.util.Arrays;
+
+/** Розмір поля і склад флоту однієї гри. */
+public final class GameConfig {
+    // більше поле не вміщається в кодування положень FleetPlacer (slot << 6 в int)
+    public static final int MAX_SIZE = 4096;
+    public static final int[] STANDARD_FLEET = {4, 3, 3, 2, 2, 2, 1, 1, 1, 1};
+
+    public final int n;
+    public final int[] fleet;
+
+    public GameConfig(int n, int[] fleet) {
+        if (n < 1 || n > MAX_SIZE) throw new IllegalArgumentException("Розмір поля має бути від 1 до " + MAX_SIZE + ": " + n);
+        if (fleet.length == 0) throw new IllegalArgumentException("Порожній флот");
+        FleetPlacer.checkFeasible(n, fleet);
+        this.n = n;
+        this.fleet = fleet;
+    }
+
+    /** Класична гра 10x10. */
+    public static GameConfig standard() { return new GameConfig(10, STANDARD_FLEET);
+    }
+
+    public static GameConfig of(int n, String fleet) { return new GameConfig(n, fleet(fleet, n));
+    }
+
+    /**
+     * Флот за назвою або списком:
+     * standard - класичний флот на будь-якому полі;
+     * scaled - класичний флот, повторений n/10 разів;
+     * long - кілька довгих кораблів, довжина росте з полем;
+     * "4,3,3,2" або "4x1,3x2,1x4" - розміри кораблів, за потреби з кількістю.
+     */
+    public static int[] fleet(String spec, int n) {
+        switch (spec) {
+            case "standard":
+                return STANDARD_FLEET;
+            case "scaled": {
+                int copies = Math.max(1, n / 10);
+                int[] res = new int[STANDARD_FLEET.length * copies];
+                for (int k = 0; k < copies; k++)
+                    System.arraycopy(STANDARD_FLEET, 0, res, k * STANDARD_FLEET.length, STANDARD_FLEET.length);
+                return res;
+            }
+            case "long": {
+                int len = Math.min(n / 2, Ship.MAX_SIZE);
+                return new int[]{len, len - 1, len - 2, Math.max(1, len / 2)};
+            }
+            default:
+                return parseList(spec);
+        }
+    }
+
+    private static int[] parseList(String spec) {
+        int[] res = new int[16];
+        int len = 0;
+        try {
+            for (String part : spec.split(",")) {
+                String[] sc = part.trim().split("x");
+                int size = Integer.parseInt(sc[0].trim());
+                int count = sc.length > 1 ? Integer.parseInt(sc[1].trim()) : 1;
+                if (sc.length > 2 || count < 0) throw new NumberFormatException(part);
+                for (int k = 0; k < count; k++) {
+                    if (len == res.length) res = Arrays.copyOf(res, len * 2);
+                    res[len++] = size;
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Невідомий флот: " + spec
+                    + ", є standard, scaled, long або список на кшталт 4,3,3,2 чи 4x1,3x2");
+        }
+        return Arrays.copyOf(res, len);
+    }
+
+    @Override
+    public String toString() { return n + "x" + n + " " + Arrays.toString(fleet);
+    }
+}
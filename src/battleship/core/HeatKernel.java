@@ -0,0 +1,127 @@
+package battleship.core;
+
+import java.util.Arrays;
+
+/**
+ * Ядро повного перерахунку карти ймовірностей (HeatMap.full). Поле розкладається в
+ * масиви 0/1 з рядками ширини n + 1: зайвий стовпець завжди мертвий, тож положення,
+ * що перейшло б на наступний рядок, відсікається само, і горизонтальні та вертикальні
+ * положення рахуються однаковими проходами по всьому масиву з кроком 1 або n + 1:
+ * спершу допустимість усіх положень одного розміру (runs), потім їхній внесок у клітини
+ * (spread). Обидві реалізації рахують ті самі цілі числа, тож результат однаковий до біта.
+ *
+ * Вибір: властивість -Dbattleship.heatKernel=scalar|vector|auto (auto - vector, якщо
+ * JVM запущена з --add-modules jdk.incubator.vector і векторне ядро є на classpath) або use().
+ * Векторне ядро лежить в окремому наборі джерел src-vector: лише воно компілюється з
+ * інкубаторним модулем, тож тут воно завантажується рефлексією.
+ */
+public abstract class HeatKernel {
+    public static final String PROPERTY = "battleship.heatKernel";
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_CLASS = "battleship.core.VectorHeatKernel";
+
+    private static final HeatKernel SCALAR = new ScalarHeatKernel();
+    private static HeatKernel vector;
+    private static volatile HeatKernel current = of(System.getProperty(PROPERTY, "auto"));
+
+    /** Назва для звітів і бенчмарків: scalar або vector. */
+    public abstract String name();
+
+    /**
+     * p[i] = 1, якщо положення з початком i (клітини i, i + step, ... i + (size - 1) * step)
+     * не зачіпає мертвих клітин і, коли needCover, накриває хоча б одне попадання.
+     */
+    abstract void runs(int[] live, int[] open, boolean needCover, int size, int step, int starts, int[] p);
+
+    /** heat[i + k * step] += p[i] * mult для всіх k < size. */
+    abstract void spread(int[] p, int starts, int size, int step, int mult, int[] heat);
+
+    public static HeatKernel scalar() { return SCALAR;
+    }
+
+    public static boolean vectorAvailable() {
+        if (!ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) return false;
+        try {
+            Class.forName(VECTOR_CLASS, false, HeatKernel.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /** Векторне ядро; без модуля jdk.incubator.vector або класу ядра - UnsupportedOperationException. */
+    public static synchronized HeatKernel vector() {
+        if (vector != null) return vector;
+        if (!ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent())
+            throw new UnsupportedOperationException("Модуль " + VECTOR_MODULE + " не підключений (--add-modules " + VECTOR_MODULE + ")");
+        try {
+            vector = (HeatKernel) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new UnsupportedOperationException("Векторне ядро недоступне: " + e, e);
+        }
+        return vector;
+    }
+
+    /** Ядро за назвою: scalar, vector або auto. */
+    public static HeatKernel of(String name) {
+        return switch (name) {
+            case "scalar" -> SCALAR;
+            case "vector" -> vector();
+            case "auto" -> vectorAvailable() ? vector() : SCALAR;
+            default -> throw new IllegalArgumentException("Невідоме ядро карти: " + name);
+        };
+    }
+
+    public static HeatKernel current() { return current;
+    }
+    public static void use(HeatKernel kernel) { current = kernel;
+    }
+
+    /**
+     * Карта для поля n x n: кожне положення кожного корабля з remaining, що не зачіпає dead
+     * (а якщо open непорожня - накриває її клітину), додає 1 усім своїм клітинам.
+     */
+    public final int[] heat(int n, BitGrid dead, BitGrid open, int[] remaining) {
+        int w = n + 1, cells = n * w;
+        int[] live = new int[cells], cover = new int[cells];
+        for (int r = 0; r < n; r++)
+            for (int c = 0; c < n; c++) {
+                int i = r * n + c;
+                if (!dead.get(i)) live[r * w + c] = 1;
+                if (open.get(i)) cover[r * w + c] = 1;
+            }
+        boolean needCover = !open.isEmpty();
+        int[] p = new int[cells], padded = new int[cells];
+
+        // однакові розміри рахуються один раз з кратністю
+        int[] sizes = remaining.clone();
+        Arrays.sort(sizes);
+        for (int a = 0; a < sizes.length; ) {
+            int size = sizes[a], b = a;
+            while (b < sizes.length && sizes[b] == size) b++;
+            int mult = b - a;
+            a = b;
+            if (size > n) continue;
+            int starts = cells - size + 1;
+            runs(live, cover, needCover, size, 1, starts, p);
+            spread(p, starts, size, 1, mult, padded);
+            starts = cells - (size - 1) * w;
+            runs(live, cover, needCover, size, w, starts, p);
+            spread(p, starts, size, w, mult, padded);
+        }
+
+        int[] heat = new int[n * n];
+        for (int r = 0; r < n; r++) System.arraycopy(padded, r * w, heat, r * n, n);
+        return heat;
+    }
+
+    /** Допустимість одного положення; спільна для скалярного ядра і хвостів векторного. */
+    static int run(int[] live, int[] open, boolean needCover, int size, int step, int i) {
+        int ok = 1, cov = needCover ? 0 : 1;
+        for (int k = 0, j = i; k < size; k++, j += step) {
+            ok &= live[j];
+            cov |= open[j];
+        }
+        return ok & cov;
+    }
+}
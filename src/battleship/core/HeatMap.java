@@ -0,0 +1,268 @@
+package battleship.core;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Інкрементальна карта ймовірностей для AI.
+ * Для кожного можливого положення кожного розміру корабля зберігає кількість
+ * "мертвих" клітин (промахи, потоплені кораблі) та кількість непотоплених попадань,
+ * які воно накриває. Після пострілу перераховуються лише положення, що проходять
+ * через змінену клітину. Результат збігається з повним перерахунком у Board.
+ */
+public final class HeatMap {
+    final int n;
+    // різні розміри кораблів і скільки непотоплених кораблів кожного розміру
+    final int[] sizes;
+    final int[] mult;
+    // [розмір][початок r*n+c]: лічильники мертвих клітин і накритих попадань
+    final byte[][] blockH, blockV, coverH, coverV;
+    // [розмір][клітина]: внесок одного корабля цього розміру (не більше 2 * розмір)
+    final short[][] allS, coverS;
+    // сумарні ваги з урахуванням кратності розмірів
+    final int[] heatAll, heatCover;
+    // непотоплені попадання, вже враховані в coverH/coverV
+    final BitGrid open;
+    int unresolved;
+    // прострілені клітини і найкраща клітина кожної карти серед решти
+    final BitGrid shot;
+    private final MaxIndex bestAll, bestCover;
+
+    HeatMap(int n, int[] remainingSizes) {
+        this.n = n;
+        int[] distinct = new int[remainingSizes.length];
+        int[] counts = new int[remainingSizes.length];
+        int d = 0;
+        for (int size : remainingSizes) {
+            int k = 0;
+            while (k < d && distinct[k] != size) k++;
+            if (k == d) distinct[d++] = size;
+            counts[k]++;
+        }
+        sizes = Arrays.copyOf(distinct, d);
+        mult = Arrays.copyOf(counts, d);
+        blockH = new byte[d][n * n];
+        blockV = new byte[d][n * n];
+        coverH = new byte[d][n * n];
+        coverV = new byte[d][n * n];
+        allS = new short[d][n * n];
+        coverS = new short[d][n * n];
+        heatAll = new int[n * n];
+        heatCover = new int[n * n];
+        open = new BitGrid(n);
+        shot = new BitGrid(n);
+        bestAll = new MaxIndex(heatAll, shot);
+        bestCover = new MaxIndex(heatCover, shot);
+
+        for (int s = 0; s < d; s++) {
+            int size = sizes[s];
+            short[] all = allS[s];
+            for (int r = 0; r < n; r++)
+                for (int c = 0; c + size <= n; c++)
+                    for (int k = 0; k < size; k++) all[r * n + c + k]++;
+            for (int r = 0; r + size <= n; r++)
+                for (int c = 0; c < n; c++)
+                    for (int k = 0; k < size; k++) all[(r + k) * n + c]++;
+            for (int i = 0; i < n * n; i++) heatAll[i] += mult[s] * all[i];
+        }
+    }
+
+    /** Будує карту за поточним станом поля. */
+    public static HeatMap of(BoardView v) { return of(v, v.remainingShipSizes());
+    }
+
+    /** Те саме з уже зібраними розмірами непотоплених кораблів. */
+    static HeatMap of(BoardView v, int[] remaining) {
+        HeatMap h = new HeatMap(v.getSize(), remaining);
+        BitGrid shot = v.shotMask(), hit = v.hitMask(), sunk = v.sunkMask();
+        h.shot.copyFrom(shot);
+        for (int i = shot.nextSetBit(0); i >= 0; i = shot.nextSetBit(i + 1)) {
+            if (!hit.get(i) || sunk.get(i)) h.block(i);
+            else h.addHit(i);
+        }
+        return h;
+    }
+
+    /** Повний перерахунок: кожне положення кожного непотопленого корабля окремо. */
+    public static int[] full(BoardView v) {
+        int n = v.getSize();
+        // 1) Розміри кораблів, що ще не потоплені; якщо їх немає - стандартний набір
+        int[] remaining = v.remainingShipSizes();
+        if (remaining.length == 0) remaining = v.getShipSizes();
+
+        // 2) Клітини, через які корабель пройти не може (промахи та потоплені кораблі),
+        // і "неприсвоєні" попадання - в кораблі, що ще не потоплені
+        BitGrid shot = v.shotMask(), hit = v.hitMask(), sunk = v.sunkMask();
+        BitGrid dead = new BitGrid(n);
+        BitGrid open = new BitGrid(n);
+        for (int w = 0; w < dead.words.length; w++) {
+            dead.words[w] = (shot.words[w] & ~hit.words[w]) | sunk.words[w];
+            open.words[w] = hit.words[w] & ~sunk.words[w];
+        }
+        // 3) Матриця ймовірностей (цілі лічильники) - скалярним або векторним ядром
+        return HeatKernel.current().heat(n, dead, open, remaining);
+    }
+
+    /**
+     * Непрострілена клітина з найбільшою вагою (перша за рядками), а якщо всі ваги нульові -
+     * випадкова клітина в шаховому порядку або будь-яка вільна.
+     */
+    public static Point bestMove(int[] heat, BoardView v, RandomGenerator rnd) {
+        int n = v.getSize();
+        BitGrid shot = v.shotMask();
+        int best = -1, bestVal = -1;
+        for (int i = 0; i < n * n; i++) {
+            if (shot.get(i)) continue;
+            if (heat[i] > bestVal) {
+                bestVal = heat[i];
+                best = i;
+            }
+        }
+        if (bestVal > 0) return new Point(best / n, best % n);
+
+        // шахматний варіант (для ефективності проти 2-3 клітинних кораблів)
+        int cand = 0, free = 0;
+        for (int i = 0; i < n * n; i++) {
+            if (shot.get(i)) continue;
+            free++;
+            if ((i / n + i % n) % 2 == 0) cand++;
+        }
+        if (free == 0) return null;
+        boolean parity = cand > 0;
+        int k = rnd.nextInt(parity ? cand : free);
+        for (int i = 0; i < n * n; i++) {
+            if (shot.get(i) || parity && (i / n + i % n) % 2 != 0) continue;
+            if (k-- == 0) return new Point(i / n, i % n);
+        }
+        return null;
+    }
+
+    /**
+     * Те саме, що bestMove(weights(), v, rnd), але найкраща клітина береться з індексу
+     * максимумів без перегляду всього поля. Карта має бачити всі постріли по полю v.
+     */
+    public Point bestMove(BoardView v, RandomGenerator rnd) {
+        int i = unresolved == 0 ? bestAll.argmax() : bestCover.argmax();
+        if (i >= 0 && !v.shotMask().get(i)) return new Point(i / n, i % n);
+        return bestMove(weights(), v, rnd);
+    }
+
+    /** Ваги клітин для поточного стану (не змінювати). */
+    public int[] weights() { return unresolved == 0 ? heatAll : heatCover;
+    }
+
+    /** Промах або інша клітина, через яку корабель пройти не може. */
+    public void onMiss(int cell) {
+        markShot(cell);
+        block(cell);
+    }
+
+    /** Попадання в корабель, що ще не потоплений. */
+    public void onHit(int cell) {
+        markShot(cell);
+        addHit(cell);
+    }
+
+    /** Корабель потоплено: його клітини стають мертвими, кратність розміру зменшується. */
+    public void onSunk(Ship ship) { onSunk(ship.getRow(), ship.getCol(), ship.getSize(), ship.isHorizontal());
+    }
+
+    public void onSunk(int row, int col, int size, boolean horiz) {
+        for (int k = 0, i = row * n + col; k < size; k++, i += horiz ? 1 : n) {
+            markShot(i);
+            if (open.get(i)) removeHit(i);
+            block(i);
+        }
+        int s = indexOf(size);
+        if (s < 0 || mult[s] == 0) return;
+        mult[s]--;
+        short[] all = allS[s], cov = coverS[s];
+        for (int i = 0; i < n * n; i++) {
+            heatAll[i] -= all[i];
+            heatCover[i] -= cov[i];
+        }
+        bestAll.touchAll();
+        bestCover.touchAll();
+    }
+
+    private void markShot(int cell) {
+        if (shot.get(cell)) return;
+        shot.set(cell);
+        bestAll.touch(cell);
+        bestCover.touch(cell);
+    }
+
+    private int indexOf(int size) {
+        for (int s = 0; s < sizes.length; s++) if (sizes[s] == size) return s;
+        return -1;
+    }
+
+    void block(int cell) {
+        int r = cell / n, c = cell % n;
+        for (int s = 0; s < sizes.length; s++) {
+            int size = sizes[s];
+            for (int c0 = Math.max(0, c - size + 1); c0 <= c && c0 + size <= n; c0++) {
+                int o = r * n + c0;
+                if (blockH[s][o]++ == 0) update(s, o, 1, size, -1, coverH[s][o] > 0);
+            }
+            for (int r0 = Math.max(0, r - size + 1); r0 <= r && r0 + size <= n; r0++) {
+                int o = r0 * n + c;
+                if (blockV[s][o]++ == 0) update(s, o, n, size, -1, coverV[s][o] > 0);
+            }
+        }
+    }
+
+    void addHit(int cell) {
+        open.set(cell);
+        unresolved++;
+        coverDelta(cell, 1);
+    }
+
+    void removeHit(int cell) {
+        open.clear(cell);
+        unresolved--;
+        coverDelta(cell, -1);
+    }
+
+    private void coverDelta(int cell, int delta) {
+        int r = cell / n, c = cell % n;
+        for (int s = 0; s < sizes.length; s++) {
+            int size = sizes[s];
+            for (int c0 = Math.max(0, c - size + 1); c0 <= c && c0 + size <= n; c0++) {
+                int o = r * n + c0;
+                int before = coverH[s][o];
+                coverH[s][o] = (byte) (coverH[s][o] + delta);
+                if (blockH[s][o] == 0 && (before == 0) != (coverH[s][o] == 0)) updateCover(s, o, 1, size, delta);
+            }
+            for (int r0 = Math.max(0, r - size + 1); r0 <= r && r0 + size <= n; r0++) {
+                int o = r0 * n + c;
+                int before = coverV[s][o];
+                coverV[s][o] = (byte) (coverV[s][o] + delta);
+                if (blockV[s][o] == 0 && (before == 0) != (coverV[s][o] == 0)) updateCover(s, o, n, size, delta);
+            }
+        }
+    }
+
+    // Додає (sign = 1) або прибирає (sign = -1) положення з усіх карт
+    private void update(int s, int origin, int step, int size, int sign, boolean covering) {
+        int m = mult[s] * sign;
+        short[] all = allS[s];
+        for (int k = 0, i = origin; k < size; k++, i += step) {
+            all[i] = (short) (all[i] + sign);
+            heatAll[i] += m;
+            bestAll.touch(i);
+        }
+        if (covering) updateCover(s, origin, step, size, sign);
+    }
+
+    private void updateCover(int s, int origin, int step, int size, int sign) {
+        int m = mult[s] * sign;
+        short[] cov = coverS[s];
+        for (int k = 0, i = origin; k < size; k++, i += step) {
+            cov[i] = (short) (cov[i] + sign);
+            heatCover[i] += m;
+            bestCover.touch(i);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package battleship.core;
+
+import java.util.Arrays;
+
+/**
+ * Компактне кодування розстановки флоту: положення кожного корабля (slot з FleetPlacer)
+ * займає bits біт, кораблі йдуть у порядку fleet і щільно пакуються в масив long.
+ * Для поля 10x10 і стандартного флоту це 80 біт - два long.
+ */
+public final class LayoutCodec {
+    final int n;
+    final int[] fleet;
+    final int bits;
+    final int words;
+
+    public LayoutCodec(int n, int[] fleet) {
+        this.n = n;
+        this.fleet = fleet;
+        bits = 32 - Integer.numberOfLeadingZeros(2 * n * n - 1);
+        words = (int) (((long) bits * fleet.length + 63) >>> 6);
+    }
+
+    public int getSize() { return n;
+    }
+    public int[] getFleet() { return fleet;
+    }
+    public int wordCount() { return words;
+    }
+
+    public long[] encode(int[] slots) {
+        long[] packed = new long[words];
+        for (int i = 0; i < slots.length; i++) put(packed, i, slots[i]);
+        return packed;
+    }
+
+    public long[] encode(Board b) {
+        long[] packed = new long[words];
+        for (int i = 0; i < fleet.length; i++) {
+            Ship s = b.ships.get(i);
+            put(packed, i, slotOf(s.getRow(), s.getCol(), s.getSize(), s.isHorizontal()));
+        }
+        return packed;
+    }
+
+    public int slot(long[] packed, int i) {
+        long pos = (long) i * bits;
+        int w = (int) (pos >>> 6), off = (int) (pos & 63);
+        long v = packed[w] >>> off;
+        if (off + bits > 64) v |= packed[w + 1] << (64 - off);
+        return (int) (v & ((1L << bits) - 1));
+    }
+
+    public int[] decode(long[] packed) {
+        int[] slots = new int[fleet.length];
+        for (int i = 0; i < slots.length; i++) slots[i] = slot(packed, i);
+        return slots;
+    }
+
+    private void put(long[] packed, int i, int slot) {
+        long pos = (long) i * bits;
+        int w = (int) (pos >>> 6), off = (int) (pos & 63);
+        packed[w] |= (long) slot << off;
+        if (off + bits > 64) packed[w + 1] |= (long) slot >>> (64 - off);
+    }
+
+    // однопалубний корабель завжди кодується як горизонтальний
+    int slotOf(int row, int col, int size, boolean horiz) {
+        return (row * n + col) * 2 + (horiz || size == 1 ? 0 : 1);
+    }
+
+    /** Розстановка після симетрії t (див. Symmetry). */
+    public long[] transform(long[] packed, int t) {
+        long[] res = new long[words];
+        for (int i = 0; i < fleet.length; i++) {
+            int slot = slot(packed, i), size = fleet[i];
+            int row = FleetPlacer.slotRow(slot, n), col = FleetPlacer.slotCol(slot, n);
+            boolean horiz = FleetPlacer.slotHoriz(slot);
+            int r2 = row + (horiz ? 0 : size - 1), c2 = col + (horiz ? size - 1 : 0);
+            int tr = Math.min(Symmetry.row(t, row, col, n), Symmetry.row(t, r2, c2, n));
+            int tc = Math.min(Symmetry.col(t, row, col, n), Symmetry.col(t, r2, c2, n));
+            put(res, i, slotOf(tr, tc, size, Symmetry.swapsAxes(t) != horiz));
+        }
+        return res;
+    }
+
+    /** Різні розстановки, отримані симетріями з packed (сама packed - перша). */
+    public long[][] variants(long[] packed) {
+        long[][] res = new long[Symmetry.COUNT][];
+        int cnt = 0;
+        outer:
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            long[] v = t == Symmetry.IDENTITY ? packed : transform(packed, t);
+            for (int k = 0; k < cnt; k++) if (Arrays.equals(res[k], v)) continue outer;
+            res[cnt++] = v;
+        }
+        return Arrays.copyOf(res, cnt);
+    }
+}
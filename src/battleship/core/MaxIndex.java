@@ -0,0 +1,86 @@
+package battleship.core;
+
+import java.util.Arrays;
+
+/**
+ * Найбільше додатне значення масиву серед клітин, не позначених у excluded, без повного
+ * перегляду на кожен запит. Клітини розбиті на блоки по 64 (як слова BitGrid), блоки -
+ * на групи по 64 блоки. Змінені клітини лише позначають свій блок брудним; запит
+ * перераховує брудні блоки та їхні групи і переглядає максимуми груп.
+ * Серед рівних перемагає перша клітина за рядками.
+ */
+final class MaxIndex {
+    private final int[] values;
+    private final BitGrid excluded;
+    private final int cells;
+    private final int[] blockMax, blockArg;
+    private final int[] groupMax, groupArg;
+    // біт b - блок b брудний; слово g відповідає групі g
+    private final long[] dirty;
+
+    MaxIndex(int[] values, BitGrid excluded) {
+        this.values = values;
+        this.excluded = excluded;
+        cells = values.length;
+        int blocks = (cells + 63) >>> 6;
+        blockMax = new int[blocks];
+        blockArg = new int[blocks];
+        int groups = (blocks + 63) >>> 6;
+        groupMax = new int[groups];
+        groupArg = new int[groups];
+        dirty = new long[groups];
+        touchAll();
+    }
+
+    void touch(int i) { dirty[i >>> 12] |= 1L << (i >>> 6);
+    }
+
+    void touchAll() {
+        Arrays.fill(dirty, -1L);
+        int blocks = blockMax.length;
+        if ((blocks & 63) != 0) dirty[dirty.length - 1] = -1L >>> -blocks;
+    }
+
+    /** Індекс клітини з найбільшим додатним значенням або -1. */
+    int argmax() {
+        int best = -1, bestVal = 0;
+        for (int g = 0; g < dirty.length; g++) {
+            long d = dirty[g];
+            if (d != 0) {
+                dirty[g] = 0;
+                for (; d != 0; d &= d - 1) rescanBlock((g << 6) + Long.numberOfTrailingZeros(d));
+                rescanGroup(g);
+            }
+            if (groupMax[g] > bestVal) {
+                bestVal = groupMax[g];
+                best = groupArg[g];
+            }
+        }
+        return best;
+    }
+
+    private void rescanBlock(int b) {
+        int max = 0, arg = -1;
+        long free = ~excluded.words[b];
+        for (int to = Math.min(cells, (b + 1) << 6), i = b << 6; i < to; i++) {
+            if ((free & (1L << i)) != 0 && values[i] > max) {
+                max = values[i];
+                arg = i;
+            }
+        }
+        blockMax[b] = max;
+        blockArg[b] = arg;
+    }
+
+    private void rescanGroup(int g) {
+        int max = 0, arg = -1;
+        for (int to = Math.min(blockMax.length, (g + 1) << 6), b = g << 6; b < to; b++) {
+            if (blockMax[b] > max) {
+                max = blockMax[b];
+                arg = blockArg[b];
+            }
+        }
+        groupMax[g] = max;
+        groupArg[g] = arg;
+    }
+}
@@ -0,0 +1,188 @@
+package battleship.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.random.RandomGenerator;
+
+/**
+ * Оцінка ймовірностей клітин вибіркою повних розстановок флоту, що узгоджуються з пострілами:
+ * кораблі не заходять на промахи і в ореоли потоплених кораблів, не торкаються один одного,
+ * кожне непотоплене попадання накрите кораблем, і жоден корабель не лежить лише на
+ * попаданнях - такий корабель був би вже потоплений (те саме правило, що в EndgameSolver). Вибірка йде раундами паралельно на всіх
+ * ядрах і зупиняється за бюджетом вибірок, часу або коли найкраща клітина перестала змінюватись.
+ */
+public final class MonteCarloSampler {
+    // кроків пошуку на одну вибірку; важкі випадки просто відкидаються
+    private static final long SAMPLE_NODE_BUDGET = 2_000;
+
+    private final int maxSamples;
+    private final long timeBudgetNanos;
+    private final int roundSamples;
+    private final int stableRounds;
+    private final ForkJoinPool pool;
+
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    // статистика останнього виклику
+    private int lastSamples;
+    private int lastAccepted;
+    private int lastRounds;
+
+    public MonteCarloSampler(int maxSamples, long timeBudgetNanos, int roundSamples, int stableRounds, ForkJoinPool pool) {
+        this.maxSamples = maxSamples;
+        this.timeBudgetNanos = timeBudgetNanos;
+        this.roundSamples = roundSamples;
+        this.stableRounds = stableRounds;
+        this.pool = pool;
+    }
+
+    /** 20000 вибірок або 5 мс, зупинка після 3 раундів з тією самою найкращою клітиною. */
+    public MonteCarloSampler() {
+        this(20_000, 5_000_000L, 512, 3, ForkJoinPool.commonPool());
+    }
+
+    public int lastSamples() { return lastSamples;
+    }
+    public int lastAccepted() { return lastAccepted;
+    }
+    public int lastRounds() { return lastRounds;
+    }
+
+    /** Кількість прийнятих розстановок, що накривають кожну клітину, або null, якщо жодна не підійшла. */
+    public int[] estimate(Board b) { return estimate(b, b.rnd);
+    }
+
+    /**
+     * Те саме за видимим станом поля: флот - remainingShipSizes, потоплені кораблі - їхні
+     * клітини з ореолом. rnd дає seed вибірки, тож з тим самим rnd вибірка та сама.
+     */
+    public int[] estimate(BoardView b, RandomGenerator rnd) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        int n = b.getSize();
+        Problem p = new Problem(b);
+        int[] total = new int[n * n];
+        int parts = Math.max(1, pool.getParallelism());
+        int perPart = Math.max(1, roundSamples / parts);
+        int samples = 0, accepted = 0, rounds = 0, stable = 0, best = -1;
+
+        // кожне завдання - зі своїм генератором від генератора поля: без спільного стану між
+        // потоками, і з тим самим seed вибірка та сама, поки її не обрізав час
+        long base = rnd.nextLong();
+        while (samples < maxSamples && System.nanoTime() < deadline) {
+            List<ForkJoinTask<int[]>> tasks = new ArrayList<>(parts);
+            for (int k = 0; k < parts; k++) {
+                SplitMixRandom part = new SplitMixRandom(SplitMixRandom.gameSeed(base, (long) rounds * parts + k));
+                tasks.add(pool.submit(() -> workers.get().sample(p, perPart, deadline, part)));
+            }
+            for (ForkJoinTask<int[]> t : tasks) {
+                int[] counts = t.join();
+                // останній елемент - кількість прийнятих вибірок
+                accepted += counts[n * n];
+                for (int i = 0; i < n * n; i++) total[i] += counts[i];
+            }
+            samples += parts * perPart;
+            rounds++;
+
+            int cur = argmax(total, b);
+            stable = cur == best && cur >= 0 ? stable + 1 : 0;
+            best = cur;
+            if (stable >= stableRounds) break;
+        }
+        lastSamples = samples;
+        lastAccepted = accepted;
+        lastRounds = rounds;
+        return accepted == 0 ? null : total;
+    }
+
+    private static int argmax(int[] heat, BoardView b) {
+        BitGrid shot = b.shotMask();
+        int best = -1, bestVal = 0;
+        for (int i = 0; i < heat.length; i++) {
+            if (heat[i] > bestVal && !shot.get(i)) {
+                bestVal = heat[i];
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /** Незмінний опис позиції, спільний для всіх потоків одного ходу. */
+    private static final class Problem {
+        final int n;
+        final int[] fleet;
+        final BitGrid blocked;
+        final BitGrid open;
+        final int[] openHits;
+
+        Problem(BoardView b) {
+            n = b.getSize();
+            fleet = b.remainingShipSizes();
+            BitGrid shot = b.shotMask(), hit = b.hitMask(), sunk = b.sunkMask();
+
+            // промахи та потоплені кораблі з ореолом: ореол корабля - клітини навколо кожної його клітини
+            blocked = new BitGrid(n);
+            for (int w = 0; w < blocked.words.length; w++)
+                blocked.words[w] = shot.words[w] & ~hit.words[w];
+            for (int i = sunk.nextSetBit(0); i >= 0; i = sunk.nextSetBit(i + 1)) {
+                int r = i / n, c = i % n;
+                int c0 = Math.max(0, c - 1), c1 = Math.min(n - 1, c + 1);
+                for (int rr = Math.max(0, r - 1); rr <= Math.min(n - 1, r + 1); rr++) blocked.setRange(rr * n + c0, rr * n + c1 + 1);
+            }
+
+            open = new BitGrid(n);
+            for (int w = 0; w < open.words.length; w++)
+                open.words[w] = hit.words[w] & ~sunk.words[w];
+            openHits = new int[open.cardinality()];
+            int cnt = 0;
+            for (int i = open.nextSetBit(0); i >= 0; i = open.nextSetBit(i + 1)) openHits[cnt++] = i;
+        }
+    }
+
+    /** Стан одного потоку: розстановник перевикористовується, поки не зміниться флот. */
+    private static final class Worker {
+        FleetPlacer placer;
+        Problem problem;
+        BitGrid covered;
+
+        int[] sample(Problem p, int count, long deadline, RandomGenerator rnd) {
+            int n = p.n;
+            int[] counts = new int[n * n + 1];
+            if (p.fleet.length == 0) return counts;
+            if (problem != p) {
+                if (placer == null || placer.n != n || !Arrays.equals(placer.fleet, p.fleet)) {
+                    placer = new FleetPlacer(n, p.fleet);
+                    placer.setNodeBudget(SAMPLE_NODE_BUDGET);
+                    covered = new BitGrid(n);
+                }
+                placer.reset(p.blocked);
+                problem = p;
+            }
+            for (int k = 0; k < count; k++) {
+                if ((k & 15) == 15 && System.nanoTime() > deadline) break;
+                int[] slots = placer.tryPlace(rnd);
+                if (slots == null) continue;
+                placer.undoAll();
+                covered.clearAll();
+                boolean ok = true;
+                for (int i = 0; i < slots.length && ok; i++) {
+                    int cell = slots[i] >> 1, step = FleetPlacer.slotHoriz(slots[i]) ? 1 : n, hits = 0;
+                    for (int j = 0; j < p.fleet[i]; j++) {
+                        covered.set(cell + j * step);
+                        if (p.open.get(cell + j * step)) hits++;
+                    }
+                    // корабель з одних попадань уже був би потоплений
+                    if (hits == p.fleet[i]) ok = false;
+                }
+                if (!ok) continue;
+                for (int h : p.openHits) if (!covered.get(h)) { ok = false; break; }
+                if (!ok) continue;
+                counts[n * n]++;
+                for (int i = covered.nextSetBit(0); i >= 0; i = covered.nextSetBit(i + 1)) counts[i]++;
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package battleship.core;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Дебютна книга карти ймовірностей: для кожного стану, досяжного за перші depth пострілів
+ * AI, - хід, який зробив би HeatMap (непрострілена клітина з найбільшою вагою, перша
+ * за рядками). Стани зберігаються в канонічному вигляді (CanonicalState), тож симетричні
+ * стани ділять запис; у записі - всі клітини з найбільшою вагою, бо після переведення
+ * назад у координати поля першою за рядками може стати інша з них.
+ * Книга незмінна і може використовуватись з багатьох потоків.
+ */
+public final class OpeningBook {
+    static final int MAGIC = 'B' | 'S' << 8 | 'O' << 16 | 'B' << 24;
+    static final int VERSION = 2;
+
+    public final int n;
+    public final int[] fleet;
+    public final int depth;
+    // скільки різних станів обійдено при побудові (до згортання симетрій)
+    public final int positions;
+    // відсортовані хеші канонічних станів; клітини стану i - cells[start[i]..start[i + 1])
+    private final long[] keys;
+    private final int[] start;
+    private final short[] cells;
+    // найбільша кількість прострілених клітин серед станів книги
+    private final int maxShots;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private OpeningBook(int n, int[] fleet, int depth, int positions, int maxShots, long[] keys, int[] start, short[] cells) {
+        this.n = n;
+        this.fleet = fleet;
+        this.depth = depth;
+        this.positions = positions;
+        this.maxShots = maxShots;
+        this.keys = keys;
+        this.start = start;
+        this.cells = cells;
+    }
+
+    /**
+     * Обходить усі результати перших depth пострілів: промах, попадання і потоплення,
+     * якщо лінія попадань має довжину корабля, що лишився. Однакові стани, отримані
+     * різним порядком пострілів, обходяться один раз. Симетричний стан обходиться
+     * окремо (AI в ньому може вибрати іншу з рівних клітин), але запис у книзі спільний.
+     */
+    public static OpeningBook build(GameConfig config, int depth) {
+        if (config.n > CanonicalState.MAX_SIZE)
+            throw new IllegalArgumentException("Дебютна книга - для полів до " + CanonicalState.MAX_SIZE + ": " + config.n);
+        Builder b = new Builder(config.n);
+        b.expand(new Position(config.n, config.fleet), depth);
+        long[] keys = new long[b.book.size()];
+        int k = 0;
+        for (long key : b.book.keySet()) keys[k++] = key;
+        Arrays.sort(keys);
+        int[] start = new int[keys.length + 1];
+        for (int i = 0; i < keys.length; i++) start[i + 1] = start[i] + b.book.get(keys[i]).length;
+        short[] cells = new short[start[keys.length]];
+        for (int i = 0; i < keys.length; i++) {
+            short[] c = b.book.get(keys[i]);
+            System.arraycopy(c, 0, cells, start[i], c.length);
+        }
+        return new OpeningBook(config.n, config.fleet, depth, b.visited.size(), b.maxShots, keys, start, cells);
+    }
+
+    private static final class Builder {
+        final Zobrist zobrist;
+        final Set<Long> visited = new HashSet<>();
+        final Map<Long, short[]> book = new HashMap<>();
+        int maxShots;
+
+        Builder(int n) { zobrist = Zobrist.forSize(n);
+        }
+
+        void expand(Position p, int movesLeft) {
+            if (movesLeft == 0 || p.remaining.length == 0) return;
+            if (!visited.add(zobrist.hash(p))) return;
+            int[] heat = HeatMap.full(p);
+            int max = 0, count = 0;
+            for (int i = 0; i < heat.length; i++) {
+                if (p.shot.get(i) || heat[i] == 0 || heat[i] < max) continue;
+                if (heat[i] > max) {
+                    max = heat[i];
+                    count = 0;
+                }
+                count++;
+            }
+            // без додатних ваг AI стріляє випадково - такий хід у книгу не потрапляє
+            if (count == 0) return;
+            CanonicalState cs = CanonicalState.of(p);
+            short[] ties = new short[count];
+            int best = -1;
+            for (int i = 0, k = 0; i < heat.length; i++) {
+                if (p.shot.get(i) || heat[i] != max) continue;
+                if (best < 0) best = i;
+                ties[k++] = (short) cs.toCanonical(i);
+            }
+            Arrays.sort(ties);
+            book.putIfAbsent(cs.hash(), ties);
+            maxShots = Math.max(maxShots, p.shotCount());
+
+            Position miss = p.copy();
+            miss.miss(best);
+            expand(miss, movesLeft - 1);
+
+            Position hit = p.copy();
+            hit.hit(best);
+            int n = p.n, r = best / n, c = best % n;
+            int c0 = c, c1 = c, r0 = r, r1 = r;
+            while (c0 > 0 && hit.isOpen(r * n + c0 - 1)) c0--;
+            while (c1 + 1 < n && hit.isOpen(r * n + c1 + 1)) c1++;
+            while (r0 > 0 && hit.isOpen((r0 - 1) * n + c)) r0--;
+            while (r1 + 1 < n && hit.isOpen((r1 + 1) * n + c)) r1++;
+            // попадання, що торкаються під кутом, суперечать правилу "кораблі не торкаються"
+            if (c1 > c0 && r1 > r0) return;
+            boolean horiz = r1 == r0;
+            int len = horiz ? c1 - c0 + 1 : r1 - r0 + 1;
+            int longest = 0;
+            boolean fits = false;
+            for (int size : p.remaining) {
+                longest = Math.max(longest, size);
+                if (size == len) fits = true;
+            }
+            if (len < longest) expand(hit, movesLeft - 1);
+            if (fits) {
+                Position sunk = hit.copy();
+                sunk.sink(horiz ? r : r0, horiz ? c0 : c, len, horiz);
+                expand(sunk, movesLeft - 1);
+            }
+        }
+    }
+
+    public int size() { return keys.length;
+    }
+    public int maxShots() { return maxShots;
+    }
+    public long hits() { return hits.sum();
+    }
+    public long misses() { return misses.sum();
+    }
+
+    /** Приблизний розмір таблиць у пам'яті, байт. */
+    public long memoryBytes() { return keys.length * 8L + start.length * 4L + cells.length * 2L;
+    }
+
+    /** Чи підходить книга для цього поля: той самий розмір і флот. */
+    public boolean matches(BoardView v) {
+        return v.getSize() == n && Arrays.equals(v.getShipSizes(), fleet);
+    }
+
+    /** Хід з книги або null, якщо стану в книзі немає. Поле має відповідати книзі (matches). */
+    public Point move(BoardView v) {
+        if (v.shotCount() > maxShots) return null;
+        CanonicalState cs = CanonicalState.of(v);
+        int i = Arrays.binarySearch(keys, cs.hash());
+        int best = -1;
+        if (i >= 0) {
+            for (int k = start[i]; k < start[i + 1]; k++) {
+                int cell = cs.fromCanonical(cells[k]);
+                // захист від колізії хешів: хід має бути в непрострілену клітину
+                if (!v.shotMask().get(cell) && (best < 0 || cell < best)) best = cell;
+            }
+        }
+        if (best < 0) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new Point(best / n, best % n);
+    }
+
+    public String metrics() {
+        long h = hits(), total = h + misses();
+        return String.format("opening book: %d states (%d before symmetry), depth %d, %d KB, hits %d, misses %d (%.1f%% hit)",
+                size(), positions, depth, memoryBytes() >> 10, h, misses(), total == 0 ? 0 : h * 100.0 / total);
+    }
+
+    /**
+     * Формат (little-endian): MAGIC, версія, n, флот, depth, positions, maxShots, кількість станів,
+     * для кожного - хеш, кількість клітин (u8) і клітини (u16).
+     */
+    public void save(Path path) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(4 + 1 + 2 + 4 + fleet.length + 4 * 4 + keys.length * 9 + cells.length * 2)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(MAGIC).put((byte) VERSION).putShort((short) n).putInt(fleet.length);
+        for (int size : fleet) b.put((byte) size);
+        b.putInt(depth).putInt(positions).putInt(maxShots).putInt(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            b.putLong(keys[i]).put((byte) (start[i + 1] - start[i]));
+            for (int k = start[i]; k < start[i + 1]; k++) b.putShort(cells[k]);
+        }
+        Files.write(path, b.array());
+    }
+
+    public static OpeningBook load(Path path) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (b.remaining() < 11 || b.getInt() != MAGIC) throw new IllegalArgumentException("Це не дебютна книга: " + path);
+        int version = b.get() & 0xFF;
+        if (version != VERSION) throw new IllegalArgumentException("Непідтримувана версія книги: " + version);
+        int n = b.getShort() & 0xFFFF;
+        int[] fleet = new int[b.getInt()];
+        for (int i = 0; i < fleet.length; i++) fleet[i] = b.get() & 0xFF;
+        int depth = b.getInt(), positions = b.getInt(), maxShots = b.getInt();
+        long[] keys = new long[b.getInt()];
+        int[] start = new int[keys.length + 1];
+        short[] cells = new short[16];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = b.getLong();
+            int count = b.get() & 0xFF;
+            start[i + 1] = start[i] + count;
+            if (start[i + 1] > cells.length) cells = Arrays.copyOf(cells, Math.max(cells.length * 2, start[i + 1]));
+            for (int k = start[i]; k < start[i + 1]; k++) cells[k] = b.getShort();
+        }
+        return new OpeningBook(n, fleet, depth, positions, maxShots, keys, start, Arrays.copyOf(cells, start[keys.length]));
+    }
+
+    /** Гіпотетичний стан поля для побудови книги: лише те, що бачить стрілець. */
+    private static final class Position implements BoardView {
+        final int n;
+        final int[] fleet;
+        int[] remaining;
+        final BitGrid shot, hit, sunk;
+        int[] log;
+        int len;
+
+        Position(int n, int[] fleet) {
+            this.n = n;
+            this.fleet = fleet;
+            remaining = fleet;
+            shot = new BitGrid(n);
+            hit = new BitGrid(n);
+            sunk = new BitGrid(n);
+            log = new int[16];
+        }
+
+        private Position(Position o) {
+            n = o.n;
+            fleet = o.fleet;
+            remaining = o.remaining;
+            shot = o.shot.copy();
+            hit = o.hit.copy();
+            sunk = o.sunk.copy();
+            log = o.log.clone();
+            len = o.len;
+        }
+
+        Position copy() { return new Position(this);
+        }
+
+        boolean isOpen(int cell) { return hit.get(cell) && !sunk.get(cell);
+        }
+
+        void miss(int cell) {
+            if (shot.get(cell)) return;
+            shot.set(cell);
+            if (len == log.length) log = Arrays.copyOf(log, len * 2);
+            log[len++] = cell;
+        }
+
+        void hit(int cell) {
+            miss(cell);
+            hit.set(cell);
+        }
+
+        // як Board.shoot для останньої клітини корабля і markAround після нього
+        void sink(int row, int col, int size, boolean horiz) {
+            for (int k = 0; k < size; k++) sunk.set(horiz ? row * n + col + k : (row + k) * n + col);
+            int r0 = Math.max(0, row - 1), r1 = Math.min(n - 1, row + (horiz ? 0 : size - 1) + 1);
+            int c0 = Math.max(0, col - 1), c1 = Math.min(n - 1, col + (horiz ? size - 1 : 0) + 1);
+            for (int r = r0; r <= r1; r++)
+                for (int c = c0; c <= c1; c++)
+                    if (!hit.get(r * n + c)) miss(r * n + c);
+            int[] rest = new int[remaining.length - 1];
+            boolean removed = false;
+            for (int i = 0, j = 0; i < remaining.length; i++) {
+                if (!removed && remaining[i] == size) {
+                    removed = true;
+                    continue;
+                }
+                rest[j++] = remaining[i];
+            }
+            remaining = rest;
+        }
+
+        public int getSize() { return n;
+        }
+        public int[] getShipSizes() { return fleet;
+        }
+        public int[] remainingShipSizes() { return remaining;
+        }
+        public boolean isShot(int r, int c) { return shot.get(r * n + c);
+        }
+        public boolean isHit(int r, int c) { return hit.get(r * n + c);
+        }
+        public boolean isSunk(int r, int c) { return sunk.get(r * n + c);
+        }
+        public BitGrid shotMask() { return shot;
+        }
+        public BitGrid hitMask() { return hit;
+        }
+        public BitGrid sunkMask() { return sunk;
+        }
+        public int shotCount() { return len;
+        }
+        public int shotAt(int i) { return log[i];
+        }
+    }
+
+    /** Аргументи: розмір флот глибина файл. */
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        GameConfig config = GameConfig.of(n, args.length > 1 ? args[1] : "standard");
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        Path out = Path.of(args.length > 3 ? args[3] : "opening.book");
+        long start = System.nanoTime();
+        OpeningBook book = build(config, depth);
+        book.save(out);
+        System.out.printf("%s: %d states (%d before symmetry), depth %d, up to %d shots, %d bytes, %.1f s%n", out,
+                book.size(), book.positions, depth, book.maxShots(), Files.size(out), (System.nanoTime() - start) / 1e9);
+    }
+}
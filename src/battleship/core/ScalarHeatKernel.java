@@ -0,0 +1,21 @@
+package battleship.core;
+
+/** Ядро HeatKernel на звичайних циклах; працює без модуля jdk.incubator.vector. */
+final class ScalarHeatKernel extends HeatKernel {
+    @Override
+    public String name() { return "scalar";
+    }
+
+    @Override
+    void runs(int[] live, int[] open, boolean needCover, int size, int step, int starts, int[] p) {
+        for (int i = 0; i < starts; i++) p[i] = run(live, open, needCover, size, step, i);
+    }
+
+    @Override
+    void spread(int[] p, int starts, int size, int step, int mult, int[] heat) {
+        for (int k = 0; k < size; k++) {
+            int off = k * step;
+            for (int i = 0; i < starts; i++) heat[i + off] += p[i] * mult;
+        }
+    }
+}
@@ -1,26 +1,54 @@
 package battleship.core;
 
-import java.awt.Point;
-import java.util.HashSet;
-import java.util.Set;
-
 public class Ship {
+    public static final int MAX_SIZE = 64;
+
+    private final int row, col;
+    private final boolean horiz;
     private int size; // Залишається private
-    public Set<Point> cells = new HashSet<>();
-    private Set<Point> hits = new HashSet<>();
+    // біт k - попадання в k-ту клітину від початку корабля
+    private long hits;
+
+    public Ship(int row, int col, int size, boolean horiz) {
+        if (size < 1 || size > MAX_SIZE) throw new IllegalArgumentException("Недопустимий розмір корабля: " + size);
+        this.row = row;
+        this.col = col;
+        this.size = size;
+        this.horiz = horiz;
+    }
+
+    public int getRow() { return row;
+    }
+    public int getCol() { return col;
+    }
+    public boolean isHorizontal() { return horiz;
+    }
+    public int cellRow(int k) { return horiz ? row : row + k;
+    }
+    public int cellCol(int k) { return horiz ? col + k : col;
+    }
+
+    /** Номер клітини в кораблі або -1, якщо (r, c) йому не належить. */
+    private int offset(int r, int c) {
+        int k = horiz ? c - col : r - row;
+        if ((horiz ? r != row : c != col) || k < 0 || k >= size) return -1;
+        return k;
+    }
 
-    public Ship(int size) { this.size = size;
+    public boolean contains(int r, int c) { return offset(r, c) >= 0;
     }
-    public void addCell(int r, int c) { cells.add(new Point(r, c));
+    public void hit(int r, int c) {
+        int k = offset(r, c);
+        if (k >= 0) hits |= 1L << k;
     }
-    public boolean contains(int r, int c) { return cells.contains(new Point(r, c));
+    public boolean isHit(int k) { return (hits >>> k & 1L) != 0;
     }
-    public void hit(int r, int c) { hits.add(new Point(r, c));
+    public boolean isSunk() { return Long.bitCount(hits) == size;
     }
-    public boolean isSunk() { return hits.size() == size;
+    public void reset() { hits = 0L;
     }
 
     public int getSize() {
         return size;
     }
-}
\ No newline at end of file
+}
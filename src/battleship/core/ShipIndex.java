@@ -0,0 +1,66 @@
+package battleship.core;
+
+import java.util.Arrays;
+
+/**
+ * Клітина -> номер корабля (індекс у Board.ships + 1). Відкрита адресація з лінійним
+ * пробуванням: пам'ять пропорційна кількості клітин кораблів, а не площі поля.
+ */
+final class ShipIndex {
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    // зайняті комірки таблиці, щоб очищення не залежало від її розміру
+    private int[] used;
+
+    ShipIndex() {
+        keys = new int[64];
+        values = new int[64];
+        used = new int[32];
+        mask = keys.length - 1;
+        Arrays.fill(keys, -1);
+    }
+
+    private static int hash(int cell) {
+        int h = cell * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    int get(int cell) {
+        for (int i = hash(cell) & mask; ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == cell) return values[i];
+            if (k < 0) return 0;
+        }
+    }
+
+    void put(int cell, int id) {
+        if (2 * (size + 1) > keys.length) grow();
+        int i = hash(cell) & mask;
+        while (keys[i] >= 0 && keys[i] != cell) i = (i + 1) & mask;
+        if (keys[i] < 0) {
+            keys[i] = cell;
+            if (size == used.length) used = Arrays.copyOf(used, size * 2);
+            used[size++] = i;
+        }
+        values[i] = id;
+    }
+
+    void clear() {
+        for (int k = 0; k < size; k++) keys[used[k]] = -1;
+        size = 0;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys, oldValues = values, oldUsed = used;
+        int oldSize = size;
+        keys = new int[oldKeys.length * 2];
+        values = new int[keys.length];
+        mask = keys.length - 1;
+        Arrays.fill(keys, -1);
+        used = new int[oldUsed.length];
+        size = 0;
+        for (int k = 0; k < oldSize; k++) put(oldKeys[oldUsed[k]], oldValues[oldUsed[k]]);
+    }
+}
@@ -0,0 +1,45 @@
+package battleship.core;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Швидкий генератор SplitMix64 - той самий потік nextLong, що в SplittableRandom з тим
+ * самим seed, але стан можна задати заново (reseed). Так одна гра = один seed: поля
+ * і стратегії частини симуляції ділять один генератор, який перед кожною грою отримує
+ * seed цієї гри, і гру можна відтворити окремо, незалежно від потоків і розбиття на частини.
+ * Не потокобезпечний: по екземпляру на потік, без спільного стану і блокувань.
+ */
+public final class SplitMixRandom implements RandomGenerator {
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public SplitMixRandom(long seed) { this.state = seed;
+    }
+
+    /** Генератор з непередбачуваним seed (для інтерфейсу). */
+    public SplitMixRandom() {
+        this(mix(System.nanoTime() ^ Thread.currentThread().threadId() * GAMMA));
+    }
+
+    public void reseed(long seed) { this.state = seed;
+    }
+
+    @Override
+    public long nextLong() { return mix(state += GAMMA);
+    }
+
+    /** Незалежний генератор, отриманий з цього (для окремого поля чи потоку). */
+    public SplitMixRandom split() { return new SplitMixRandom(mix(nextLong()));
+    }
+
+    /** Seed гри game серії з головним seed master: game-те nextLong() генератора SplitMixRandom(master), з нуля. */
+    public static long gameSeed(long master, long game) { return mix(master + (game + 1) * GAMMA);
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
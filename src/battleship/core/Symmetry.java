@@ -0,0 +1,38 @@
+package battleship.core;
+
+/**
+ * Вісім симетрій квадратного поля n x n (повороти та відображення).
+ * Перетворення t: спершу транспонування (біт 4), потім дзеркало рядків (біт 1) і стовпців (біт 2).
+ */
+public final class Symmetry {
+    public static final int COUNT = 8;
+    public static final int IDENTITY = 0;
+
+    private Symmetry() {
+    }
+
+    public static boolean swapsAxes(int t) { return (t & 4) != 0;
+    }
+
+    public static int row(int t, int r, int c, int n) {
+        int rr = swapsAxes(t) ? c : r;
+        return (t & 1) != 0 ? n - 1 - rr : rr;
+    }
+
+    public static int col(int t, int r, int c, int n) {
+        int cc = swapsAxes(t) ? r : c;
+        return (t & 2) != 0 ? n - 1 - cc : cc;
+    }
+
+    public static int cell(int t, int cell, int n) {
+        int r = cell / n, c = cell % n;
+        return row(t, r, c, n) * n + col(t, r, c, n);
+    }
+
+    /** Перетворення, що скасовує t. */
+    public static int inverse(int t) {
+        if (!swapsAxes(t)) return t;
+        // (дзеркала після транспонування) = (транспонування після дзеркал з переставленими осями)
+        return 4 | (t & 1) << 1 | (t & 2) >> 1;
+    }
+}
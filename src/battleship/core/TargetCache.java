@@ -0,0 +1,257 @@
+package battleship.core;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кеш ходів карти ймовірностей у режимі добивання (є непотоплені попадання).
+ * Тоді вага ненульова лише в положень, що накривають попадання, тож хід залежить
+ * тільки від клітин у рядках і стовпцях попадань на відстані до найдовшого корабля,
+ * що лишився, і від складу флоту. Ключ - ці клітини відносно першого попадання,
+ * значення - зсуви від нього всіх клітин з найбільшою вагою; однакові ситуації
+ * в різних місцях поля та різних іграх дають один запис.
+ *
+ * Ключ будується для всіх восьми симетрій поля (Symmetry) і береться найменший, тож
+ * симетричні ситуації теж ділять запис. Серед клітин з найбільшою вагою хід - перша
+ * за рядками в координатах самого поля, як у HeatMap.bestMove.
+ *
+ * Кеш спільний для потоків: записи розкладені по сегментах з окремими блокуваннями,
+ * кожен сегмент витісняє найдавніше використані записи, поки їхня сумарна вага
+ * (наближений розмір у байтах) не вкладеться в його частку бюджету.
+ */
+public final class TargetCache {
+    private static final int STRIPES = 64;
+    // наближена вага запису без слів ключа і значення: вузол LinkedHashMap, Key, два масиви
+    private static final int ENTRY_OVERHEAD = 112;
+    // з більшою кількістю непотоплених попадань стан не кешується
+    private static final int MAX_OPEN = 16;
+    private static final int OFFSET = 1 << 15;
+
+    // стан клітини в ключі
+    private static final int FREE = 0, DEAD = 1, OPEN = 2, OUTSIDE = 3;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long maxBytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TargetCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe(Math.max(1, maxBytes / STRIPES));
+    }
+
+    /** Ключ стану поля разом з перетворенням і клітиною-якорем. */
+    public static final class Key {
+        final long[] words;
+        final int hash;
+        // перетворення поля до канонічного вигляду і перше попадання після нього;
+        // до рівності ключів не входять
+        final int transform;
+        final int anchor;
+        final int n;
+
+        Key(long[] words, int transform, int anchor, int n) {
+            this.words = words;
+            this.transform = transform;
+            this.anchor = anchor;
+            this.n = n;
+            long h = 0;
+            for (long w : words) h = (h ^ w) * 0x9E3779B97F4A7C15L;
+            hash = (int) (h ^ h >>> 32);
+        }
+
+        @Override
+        public boolean equals(Object o) { return o instanceof Key k && hash == k.hash && Arrays.equals(words, k.words);
+        }
+
+        @Override
+        public int hashCode() { return hash;
+        }
+    }
+
+    /** Ключ для поточного стану або null, якщо непотоплених попадань немає чи забагато. */
+    public static Key keyOf(BoardView v) {
+        int[] remaining = v.remainingShipSizes();
+        if (remaining.length == 0) return null;
+        BitGrid hit = v.hitMask(), sunk = v.sunkMask();
+        int[] open = new int[MAX_OPEN];
+        int cnt = 0;
+        for (int w = 0; w < hit.wordCount(); w++) {
+            for (long bits = hit.word(w) & ~sunk.word(w); bits != 0; bits &= bits - 1) {
+                if (cnt == MAX_OPEN) return null;
+                open[cnt++] = w << 6 | Long.numberOfTrailingZeros(bits);
+            }
+        }
+        if (cnt == 0) return null;
+        int longest = 0;
+        for (int size : remaining) longest = Math.max(longest, size);
+        int[] counts = new int[longest + 1];
+        for (int size : remaining) counts[size]++;
+
+        int n = v.getSize();
+        int bits = 16 + 16 * longest + 8 + 32 * (cnt - 1) + cnt * 2 * (2 * longest - 1) * 2;
+        long[] best = null;
+        int bestT = 0, bestAnchor = 0;
+        int[] moved = new int[cnt];
+        for (int t = 0; t < Symmetry.COUNT; t++) {
+            for (int k = 0; k < cnt; k++) moved[k] = Symmetry.cell(t, open[k], n);
+            Arrays.sort(moved);
+            long[] words = new long[(bits + 63) >>> 6];
+            write(words, v, t, moved, counts, longest);
+            if (best == null || Arrays.compareUnsigned(words, best) < 0) {
+                best = words;
+                bestT = t;
+                bestAnchor = moved[0];
+            }
+        }
+        return new Key(best, bestT, bestAnchor, n);
+    }
+
+    // ключ поля після перетворення t; moved - попадання після t за зростанням
+    private static void write(long[] words, BoardView v, int t, int[] moved, int[] counts, int longest) {
+        int n = v.getSize(), reach = longest - 1, inv = Symmetry.inverse(t);
+        KeyWriter out = new KeyWriter(words);
+        out.put(longest, 16);
+        for (int s = 1; s <= longest; s++) out.put(counts[s], 16);
+        out.put(moved.length, 8);
+        int ar = moved[0] / n, ac = moved[0] % n;
+        for (int k = 1; k < moved.length; k++) {
+            out.put(moved[k] / n - ar + OFFSET, 16);
+            out.put(moved[k] % n - ac + OFFSET, 16);
+        }
+        for (int cell : moved) {
+            int r = cell / n, c = cell % n;
+            for (int d = -reach; d <= reach; d++) out.put(state(v, inv, n, r, c + d), 2);
+            for (int d = -reach; d <= reach; d++) out.put(state(v, inv, n, r + d, c), 2);
+        }
+    }
+
+    // стан клітини (r, c) перетвореного поля; inv переводить її назад у поле
+    private static int state(BoardView v, int inv, int n, int r, int c) {
+        if (r < 0 || c < 0 || r >= n || c >= n) return OUTSIDE;
+        int i = Symmetry.row(inv, r, c, n) * n + Symmetry.col(inv, r, c, n);
+        if (!v.shotMask().get(i)) return FREE;
+        return v.hitMask().get(i) && !v.sunkMask().get(i) ? OPEN : DEAD;
+    }
+
+    private static final class KeyWriter {
+        final long[] words;
+        int pos;
+
+        KeyWriter(long[] words) { this.words = words;
+        }
+
+        void put(long v, int bits) {
+            int w = pos >>> 6, off = pos & 63;
+            words[w] |= v << off;
+            if (off + bits > 64) words[w + 1] |= v >>> (64 - off);
+            pos += bits;
+        }
+    }
+
+    private Stripe stripe(Key key) { return stripes[(key.hash ^ key.hash >>> 16) & (STRIPES - 1)];
+    }
+
+    /** Хід для стану key (перша за рядками з найкращих непрострілених клітин) або -1. */
+    public int get(Key key, BitGrid shot) {
+        Stripe s = stripe(key);
+        int[] offsets;
+        synchronized (s) {
+            offsets = s.get(key);
+        }
+        if (offsets == null) {
+            misses.increment();
+            return -1;
+        }
+        hits.increment();
+        int n = key.n, inv = Symmetry.inverse(key.transform), best = -1;
+        for (int offset : offsets) {
+            int r = key.anchor / n + (offset >>> 16) - OFFSET, c = key.anchor % n + (offset & 0xFFFF) - OFFSET;
+            int cell = Symmetry.row(inv, r, c, n) * n + Symmetry.col(inv, r, c, n);
+            if (!shot.get(cell) && (best < 0 || cell < best)) best = cell;
+        }
+        return best;
+    }
+
+    /** Запам'ятовує для стану key найкращі клітини cells[0..count) у координатах поля. */
+    public void put(Key key, int[] cells, int count) {
+        int n = key.n;
+        int[] offsets = new int[count];
+        for (int k = 0; k < count; k++) {
+            int moved = Symmetry.cell(key.transform, cells[k], n);
+            offsets[k] = (moved / n - key.anchor / n + OFFSET) << 16 | (moved % n - key.anchor % n + OFFSET);
+        }
+        Stripe s = stripe(key);
+        synchronized (s) {
+            s.store(key, offsets);
+        }
+    }
+
+    public long hits() { return hits.sum();
+    }
+    public long misses() { return misses.sum();
+    }
+    public long evictions() { return evictions.sum();
+    }
+
+    public double hitRatio() {
+        long h = hits(), total = h + misses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public long bytes() {
+        long total = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                total += s.bytes;
+            }
+        }
+        return total;
+    }
+
+    public int size() {
+        int total = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                total += s.size();
+            }
+        }
+        return total;
+    }
+
+    public String metrics() {
+        return String.format("target cache: %d entries, %d/%d KB, hits %d, misses %d (%.1f%% hit), evictions %d",
+                size(), bytes() >> 10, maxBytes >> 10, hits(), misses(), hitRatio() * 100, evictions());
+    }
+
+    private static int weight(Key key, int[] offsets) { return ENTRY_OVERHEAD + key.words.length * 8 + offsets.length * 4;
+    }
+
+    // порядок доступу: першим витісняється найдавніше використаний запис
+    private final class Stripe extends LinkedHashMap<Key, int[]> {
+        final long budget;
+        long bytes;
+
+        Stripe(long budget) {
+            super(16, 0.75f, true);
+            this.budget = budget;
+        }
+
+        void store(Key key, int[] offsets) {
+            int[] old = put(key, offsets);
+            bytes += weight(key, offsets) - (old == null ? 0 : weight(key, old));
+            Iterator<Map.Entry<Key, int[]>> it = entrySet().iterator();
+            // новий запис - останній, його не витісняємо
+            while (bytes > budget && size() > 1) {
+                Map.Entry<Key, int[]> e = it.next();
+                bytes -= weight(e.getKey(), e.getValue());
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package battleship.core;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хеш Зобріста видимого стану поля: XOR випадкових ключів прострілених клітин
+ * (окремо для промаху, попадання і потопленої клітини). Ключі залежать лише від
+ * розміру поля і фіксованого seed, тож хеші однакові між запусками і в збереженій книзі.
+ */
+public final class Zobrist {
+    public static final int MISS = 0;
+    public static final int HIT = 1;
+    public static final int SUNK = 2;
+
+    private static final long SEED = 0x5EA_BA77_1E5L;
+    private static final ConcurrentHashMap<Integer, Zobrist> BY_SIZE = new ConcurrentHashMap<>();
+
+    private final int n;
+    // [клітина * 3 + стан]
+    private final long[] keys;
+
+    private Zobrist(int n) {
+        this.n = n;
+        keys = new long[3 * n * n];
+        SplittableRandom rnd = new SplittableRandom(SEED ^ n);
+        for (int i = 0; i < keys.length; i++) keys[i] = rnd.nextLong();
+    }
+
+    public static Zobrist forSize(int n) { return BY_SIZE.computeIfAbsent(n, Zobrist::new);
+    }
+
+    public int getSize() { return n;
+    }
+
+    public long key(int cell, int state) { return keys[cell * 3 + state];
+    }
+
+    /** Стан прострілених клітини для хешу. */
+    public static int state(BoardView v, int cell) {
+        if (v.sunkMask().get(cell)) return SUNK;
+        return v.hitMask().get(cell) ? HIT : MISS;
+    }
+
+    /** Хеш за журналом пострілів: O(кількості пострілів). */
+    public long hash(BoardView v) {
+        long h = 0;
+        for (int i = 0; i < v.shotCount(); i++) {
+            int cell = v.shotAt(i);
+            h ^= key(cell, state(v, cell));
+        }
+        return h;
+    }
+}
@@ -0,0 +1,44 @@
+package battleship.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Хід вбудованого AI (Board.nextAIMove) з розбивкою на етапи. Етап, що не виконувався,
+ * має тривалість 0.
+ */
+@Name("battleship.AIMove")
+@Label("AI Move")
+@Category({"Battleship", "AI"})
+@StackTrace(false)
+public final class AIMoveEvent extends jdk.jfr.Event {
+    @Label("Source")
+    @Description("Хто вибрав хід: book, endgame, sampling, heatmap або full")
+    public String source;
+    @Label("Shots")
+    public int shots;
+    @Label("Unresolved Hits")
+    @Description("Попадання в ще не потоплені кораблі")
+    public int unresolvedHits;
+    @Label("Book")
+    @Timespan
+    public long bookNanos;
+    @Label("Endgame")
+    @Timespan
+    public long endgameNanos;
+    @Label("Remaining Ships")
+    @Description("Збір розмірів непотоплених кораблів")
+    @Timespan
+    public long remainingNanos;
+    @Label("Probability Grid")
+    @Description("Вибірка розстановок або побудова карти ймовірностей")
+    @Timespan
+    public long gridNanos;
+    @Label("Argmax")
+    @Timespan
+    public long argmaxNanos;
+}
@@ -0,0 +1,91 @@
+package battleship.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гістограма невід'ємних значень з логарифмічно-лінійними кошиками (як у HdrHistogram):
+ * значення до 2 * SUB зберігаються точно, далі відносна похибка не більша 1 / SUB.
+ * Запис без блокувань, тож один екземпляр можна ділити між потоками.
+ */
+public final class Histogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB + SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    static int bucket(long v) {
+        if (v < 2 * SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB + (int) (v >>> shift) - SUB;
+    }
+
+    // найменше значення, що потрапляє в кошик
+    static long lowest(int b) {
+        if (b < 2 * SUB) return b;
+        int shift = b / SUB - 1;
+        return (long) (b % SUB + SUB) << shift;
+    }
+
+    public void record(long v) {
+        if (v < 0) v = 0;
+        counts.incrementAndGet(bucket(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        long m;
+        while (v > (m = max.get()) && !max.compareAndSet(m, v)) {
+            // повтор
+        }
+    }
+
+    public long count() { return total.get();
+    }
+    public long max() { return max.get();
+    }
+    public double mean() { long c = count(); return c == 0 ? 0 : (double) sum.get() / c;
+    }
+
+    /** Значення, не менше за частку q записів (нижня межа кошика). */
+    public long percentile(double q) {
+        long c = count();
+        if (c == 0) return 0;
+        long need = Math.max(1, (long) Math.ceil(q * c));
+        long acc = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            acc += counts.get(b);
+            if (acc >= need) return Math.min(lowest(b), max());
+        }
+        return max();
+    }
+
+    public void merge(Histogram o) {
+        for (int b = 0; b < BUCKETS; b++) {
+            long v = o.counts.get(b);
+            if (v != 0) counts.addAndGet(b, v);
+        }
+        total.addAndGet(o.total.get());
+        sum.addAndGet(o.sum.get());
+        long m, om = o.max();
+        while (om > (m = max.get()) && !max.compareAndSet(m, om)) {
+            // повтор
+        }
+    }
+
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) counts.set(b, 0);
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /** Короткий підсумок; scale - дільник для виводу (наприклад 1000 для нс -> мкс). */
+    public String summary(double scale, String unit) {
+        return String.format("n=%d mean=%.2f%s p50=%.2f%s p90=%.2f%s p99=%.2f%s max=%.2f%s",
+                count(), mean() / scale, unit, percentile(0.5) / scale, unit, percentile(0.9) / scale, unit,
+                percentile(0.99) / scale, unit, max() / scale, unit);
+    }
+}
@@ -0,0 +1,65 @@
+package battleship.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Іменовані лічильники (LongAdder) і гістограми (Histogram) без блокувань. Гарячі місця
+ * беруть метрику один раз у статичне поле, а записують лише коли enabled(): вимкнений
+ * реєстр коштує одного читання поля.
+ *
+ * Вмикається властивістю -Dbattleship.metrics=true або setEnabled.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+    private static volatile boolean enabled = Boolean.getBoolean("battleship.metrics");
+
+    private record Scaled(Histogram histogram, double scale, String unit) {
+    }
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Scaled> histograms = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry global() { return GLOBAL;
+    }
+    public static boolean enabled() { return enabled;
+    }
+    public static void setEnabled(boolean on) { enabled = on;
+    }
+
+    public LongAdder counter(String name) { return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    /** Гістограма тривалостей у наносекундах; у знімку - мікросекунди. */
+    public Histogram timer(String name) { return histogram(name, 1000, "us");
+    }
+
+    /** Гістограма безрозмірних величин. */
+    public Histogram histogram(String name) { return histogram(name, 1, "");
+    }
+
+    private Histogram histogram(String name, double scale, String unit) {
+        return histograms.computeIfAbsent(name, k -> new Scaled(new Histogram(), scale, unit)).histogram();
+    }
+
+    /** Текстовий знімок: рядок на метрику, за абеткою; порожні гістограми пропускаються. */
+    public String snapshot() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, LongAdder> e : new TreeMap<>(counters).entrySet())
+            sb.append(e.getKey()).append(' ').append(e.getValue().sum()).append(System.lineSeparator());
+        for (Map.Entry<String, Scaled> e : new TreeMap<>(histograms).entrySet()) {
+            Scaled h = e.getValue();
+            if (h.histogram().count() == 0) continue;
+            sb.append(e.getKey()).append(' ').append(h.histogram().summary(h.scale(), h.unit()))
+                    .append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    public void reset() {
+        counters.values().forEach(LongAdder::reset);
+        histograms.values().forEach(h -> h.histogram().reset());
+    }
+}
@@ -0,0 +1,23 @@
+package battleship.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Випадкова розстановка флоту (Board.placeShipsRandomly). */
+@Name("battleship.Placement")
+@Label("Fleet Placement")
+@Category({"Battleship", "Game"})
+@StackTrace(false)
+public final class PlacementEvent extends jdk.jfr.Event {
+    @Label("Ships")
+    public int ships;
+    @Label("Attempts")
+    @Description("Скільки положень кораблів перепробувано")
+    public long attempts;
+    @Label("Restarts")
+    @Description("Скільки разів пошук повертався на крок назад")
+    public long restarts;
+}
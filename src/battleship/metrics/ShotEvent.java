@@ -0,0 +1,32 @@
+package battleship.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Постріл по полю (Board.shoot). Пострілів у симуляції мільйони, тож подія вимкнена,
+ * доки її не ввімкнуть явно: -XX:StartFlightRecording:battleship.Shot#enabled=true.
+ */
+@Name("battleship.Shot")
+@Label("Shot")
+@Category({"Battleship", "Game"})
+@StackTrace(false)
+@Enabled(false)
+public final class ShotEvent extends jdk.jfr.Event {
+    @Label("Row")
+    public int row;
+    @Label("Column")
+    public int col;
+    @Label("Hit")
+    public boolean hit;
+    @Label("Sunk")
+    @Description("Постріл потопив корабель")
+    public boolean sunk;
+    @Label("Shots")
+    @Description("Скільки клітин прострілено після пострілу")
+    public int shots;
+}
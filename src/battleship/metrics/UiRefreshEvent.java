@@ -0,0 +1,20 @@
+package battleship.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Оновлення поля в інтерфейсі (BoardComponent.refresh). */
+@Name("battleship.UiRefresh")
+@Label("UI Refresh")
+@Category({"Battleship", "UI"})
+@StackTrace(false)
+public final class UiRefreshEvent extends jdk.jfr.Event {
+    @Label("Own Board")
+    public boolean own;
+    @Label("Full Repaint")
+    public boolean full;
+    @Label("Cells")
+    public int cells;
+}
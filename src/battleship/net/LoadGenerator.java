@@ -0,0 +1,223 @@
+package battleship.net;
+
+import battleship.core.FleetPlacer;
+import battleship.core.GameConfig;
+import battleship.core.SplitMixRandom;
+import battleship.metrics.Histogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Навантажувальний тест сервера матчів: багато ботів-клієнтів на віртуальних потоках
+ * грають через loopback. Бот ставить випадковий флот і стріляє у випадковому порядку,
+ * пропускаючи клітини навколо потоплених кораблів. Час від SHOOT до відповіді
+ * записується в гістограму.
+ *
+ * Одночасних з'єднань не більше concurrency: на loopback кожне з'єднання забирає
+ * два файлові дескриптори (клієнта і сервера), а їх кількість обмежена ulimit -n.
+ */
+public final class LoadGenerator {
+    private final InetSocketAddress address;
+    private final Histogram rtt = new Histogram();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder shots = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public LoadGenerator(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    public Histogram rtt() { return rtt;
+    }
+    public long matches() { return matches.sum();
+    }
+    public long shots() { return shots.sum();
+    }
+    public long errors() { return errors.sum();
+    }
+
+    /**
+     * Запускає clients ботів (парну кількість, щоб кожному знайшлася пара), не більше
+     * concurrency одночасно, і чекає, поки всі зіграють.
+     */
+    public void run(int clients, int concurrency, long seed) throws InterruptedException {
+        if (clients <= 0 || clients % 2 != 0)
+            throw new IllegalArgumentException("Кількість клієнтів має бути парною і додатною: " + clients);
+        if (concurrency < 2)
+            throw new IllegalArgumentException("Потрібно щонайменше два одночасні клієнти: " + concurrency);
+        Semaphore permits = new Semaphore(concurrency);
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            long botSeed = SplitMixRandom.gameSeed(seed, i);
+            permits.acquire();
+            threads.add(Thread.ofVirtual().name("bot").start(() -> {
+                try {
+                    bot(botSeed);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        for (Thread t : threads) t.join();
+    }
+
+    private void bot(long seed) {
+        try (Socket s = new Socket()) {
+            s.setTcpNoDelay(true);
+            s.connect(address);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            play(in, out, new SplitMixRandom(seed));
+        } catch (IOException e) {
+            errors.increment();
+        }
+    }
+
+    private void play(DataInputStream in, DataOutputStream out, SplitMixRandom rnd) throws IOException {
+        expect(in, Protocol.WELCOME);
+        in.readUnsignedByte();
+        int n = in.readUnsignedShort();
+        int[] fleet = new int[in.readUnsignedShort()];
+        for (int i = 0; i < fleet.length; i++) fleet[i] = in.readUnsignedByte();
+
+        int[] slots = new FleetPlacer(n, fleet).place(rnd);
+        out.writeByte(Protocol.PLACE);
+        out.writeShort(slots.length);
+        for (int slot : slots) out.writeInt(slot);
+        out.flush();
+
+        expect(in, Protocol.START);
+        boolean myTurn = in.readUnsignedByte() == 1;
+
+        // випадковий порядок клітин; відомі клітини пропускаються
+        int[] order = new int[n * n];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        boolean[] known = new boolean[n * n];
+        int next = 0, sunk = 0;
+
+        while (true) {
+            if (myTurn) {
+                while (known[order[next]]) next++;
+                int cell = order[next];
+                long t0 = System.nanoTime();
+                out.writeByte(Protocol.SHOOT);
+                out.writeInt(cell);
+                out.flush();
+                int type = in.readUnsignedByte();
+                if (type == Protocol.RESULT) {
+                    in.readInt();
+                    int result = in.readUnsignedByte();
+                    rtt.record(System.nanoTime() - t0);
+                    myTurn = result != Protocol.MISS;
+                } else if (type == Protocol.SUNK) {
+                    in.readInt();
+                    int slot = in.readInt();
+                    int size = in.readUnsignedByte();
+                    rtt.record(System.nanoTime() - t0);
+                    markAround(known, n, slot, size);
+                    sunk++;
+                } else if (type == Protocol.GAME_OVER) {
+                    // суперник пішов
+                    gameOver(in);
+                    return;
+                } else {
+                    throw new IOException("Неочікуване повідомлення " + type);
+                }
+                shots.increment();
+                known[cell] = true;
+            } else {
+                int type = in.readUnsignedByte();
+                if (type == Protocol.OPPONENT_SHOT) {
+                    in.readInt();
+                    myTurn = in.readUnsignedByte() == Protocol.MISS;
+                } else if (type == Protocol.GAME_OVER) {
+                    gameOver(in);
+                    return;
+                } else {
+                    throw new IOException("Неочікуване повідомлення " + type);
+                }
+            }
+            // після останнього потопленого корабля сервер одразу надсилає GAME_OVER
+            if (sunk == fleet.length) {
+                expect(in, Protocol.GAME_OVER);
+                gameOver(in);
+                return;
+            }
+        }
+    }
+
+    private void gameOver(DataInputStream in) throws IOException {
+        boolean won = in.readUnsignedByte() == 1;
+        int reason = in.readUnsignedByte();
+        if (reason != Protocol.FINISHED) errors.increment();
+        // матч рахує переможець, щоб не рахувати двічі
+        else if (won) matches.increment();
+    }
+
+    private static void expect(DataInputStream in, byte type) throws IOException {
+        int t = in.readUnsignedByte();
+        if (t != type) throw new IOException("Очікувалося повідомлення " + type + ", прийшло " + t);
+    }
+
+    // корабель і клітини навколо нього
+    private static void markAround(boolean[] known, int n, int slot, int size) {
+        int r0 = FleetPlacer.slotRow(slot, n), c0 = FleetPlacer.slotCol(slot, n);
+        boolean horiz = FleetPlacer.slotHoriz(slot);
+        int r1 = horiz ? r0 : r0 + size - 1, c1 = horiz ? c0 + size - 1 : c0;
+        for (int r = Math.max(0, r0 - 1); r <= Math.min(n - 1, r1 + 1); r++)
+            for (int c = Math.max(0, c0 - 1); c <= Math.min(n - 1, c1 + 1); c++)
+                known[r * n + c] = true;
+    }
+
+    /** Аргументи: [клієнтів] [одночасно] [host:port, порожньо - вбудований сервер] [розмір поля] [флот] [зерно]. */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 4_000;
+        String target = args.length > 2 ? args[2] : "";
+        GameConfig config = GameConfig.of(args.length > 3 ? Integer.parseInt(args[3]) : 10,
+                args.length > 4 ? args[4] : "standard");
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+        clients += clients % 2;
+
+        MatchServer server = null;
+        InetSocketAddress address;
+        if (target.isEmpty()) {
+            server = new MatchServer(config, InetAddress.getLoopbackAddress(), 0);
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port());
+        } else {
+            int colon = target.lastIndexOf(':');
+            address = new InetSocketAddress(target.substring(0, colon), Integer.parseInt(target.substring(colon + 1)));
+        }
+
+        LoadGenerator gen = new LoadGenerator(address);
+        long t0 = System.nanoTime();
+        gen.run(clients, concurrency, seed);
+        double sec = (System.nanoTime() - t0) / 1e9;
+
+        System.out.printf("clients %d (concurrency %d), %s%n", clients, concurrency, address);
+        System.out.printf("matches %d in %.2f s: %.0f matches/s, %.0f shots/s, errors %d%n",
+                gen.matches(), sec, gen.matches() / sec, gen.shots() / sec, gen.errors());
+        System.out.println("shot RTT: " + gen.rtt().summary(1000, "us"));
+        if (server != null) {
+            System.out.println("server " + server.registry().metrics());
+            server.close();
+        }
+    }
+}
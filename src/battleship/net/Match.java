@@ -0,0 +1,196 @@
+package battleship.net;
+
+import battleship.core.Board;
+import battleship.core.FleetPlacer;
+import battleship.core.Ship;
+import battleship.sim.HeadlessGame;
+
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Матч двох гравців: черга ходу і постріли по їхніх полях. Постріли приходять з потоків
+ * обох з'єднань, тож стан змінюється під блокуванням матчу. Чекати має право лише той,
+ * чий хід не зараз: гравець, що не стріляє довше за тайм-аут ходу, програє (expire).
+ */
+final class Match {
+    final long id;
+    private final PlayerConnection[] players;
+    private final MatchRegistry registry;
+    private final ReentrantLock lock = new ReentrantLock();
+    // чий хід: 0 - перший гравець (той, хто чекав довше)
+    private int turn;
+    // коли гравець, що ходить, отримав право на постріл (System.nanoTime)
+    private long turnStarted;
+    private boolean over;
+
+    Match(long id, PlayerConnection first, PlayerConnection second, MatchRegistry registry) {
+        this.id = id;
+        this.players = new PlayerConnection[]{first, second};
+        this.registry = registry;
+        first.match = this;
+        second.match = this;
+        turnStarted = System.nanoTime();
+    }
+
+    void start() throws IOException {
+        players[0].sendStart(true);
+        players[1].sendStart(false);
+    }
+
+    /**
+     * Постріл гравця p по полю суперника; false - з'єднання треба закрити. IOException -
+     * лише збій запису самому p; якщо не вдалося написати супернику, той вважається таким,
+     * що пішов, і p виграє з OPPONENT_LEFT. Під блокуванням лише рішення про хід, а запис
+     * у сокети - після: клієнт, що не читає, блокує запис, але не матч і не watchdog.
+     */
+    boolean shoot(PlayerConnection p, int cell) throws IOException {
+        int me = p == players[0] ? 0 : 1;
+        PlayerConnection opponent = players[1 - me];
+        Board target = opponent.board;
+        int n = target.getSize();
+        int error = 0, result = 0, sunkSlot = -1, sunkSize = 0;
+        boolean finished = false;
+        lock.lock();
+        try {
+            if (over) return false;
+            if (turn != me) {
+                error = Protocol.NOT_YOUR_TURN;
+            } else if (cell < 0 || cell >= n * n) {
+                error = Protocol.BAD_CELL;
+            } else {
+                int r = cell / n, c = cell % n;
+                int res = HeadlessGame.shoot(target, r, c);
+                if (res == HeadlessGame.SUNK) {
+                    Ship s = target.shipAt(r, c);
+                    sunkSlot = slotOf(s, n);
+                    sunkSize = s.getSize();
+                    result = Protocol.SUNK_SHIP;
+                } else {
+                    result = res == HeadlessGame.HIT ? Protocol.HIT : Protocol.MISS;
+                }
+                if (res == HeadlessGame.MISS) turn = 1 - me;
+                turnStarted = System.nanoTime();
+                if (res == HeadlessGame.SUNK && target.allShipsSunk()) {
+                    over = true;
+                    finished = true;
+                    registry.finished(this, false);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (error != 0) {
+            p.sendError(error);
+            return false;
+        }
+        if (sunkSlot >= 0) p.sendSunk(cell, sunkSlot, sunkSize);
+        else p.sendResult(cell, result);
+        if (finished) {
+            p.sendGameOver(true, Protocol.FINISHED);
+            try {
+                opponent.sendOpponentShot(cell, result);
+                opponent.sendGameOver(false, Protocol.FINISHED);
+            } catch (IOException ignored) {
+                // гра вже скінчилась, переможця це не змінює
+            }
+            return false;
+        }
+        try {
+            opponent.sendOpponentShot(cell, result);
+            return true;
+        } catch (IOException e) {
+            lock.lock();
+            try {
+                // суперник міг піти і сам: тоді p уже отримав GAME_OVER з leave
+                if (over) return false;
+                over = true;
+                registry.finished(this, true);
+            } finally {
+                lock.unlock();
+            }
+            // потік суперника, заблокований на читанні, завершиться на закритому сокеті
+            opponent.close();
+            p.sendGameOver(true, Protocol.OPPONENT_LEFT);
+            return false;
+        }
+    }
+
+    /** Гравець p від'єднався: суперник виграє. */
+    void leave(PlayerConnection p) {
+        PlayerConnection opponent = p == players[0] ? players[1] : players[0];
+        lock.lock();
+        try {
+            if (over) return;
+            over = true;
+            registry.finished(this, true);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            opponent.sendGameOver(true, Protocol.OPPONENT_LEFT);
+        } catch (IOException ignored) {
+            // суперник теж від'єднався
+        }
+        // після завершеної гри з'єднання суперника закриває його власний потік
+        opponent.close();
+    }
+
+    /**
+     * Перевірка матчу з watchdog. Якщо гравець, що ходить, не стріляв з моменту turnCutoff
+     * (System.nanoTime), він програє: суперник отримує перемогу з OPPONENT_LEFT, обидва
+     * з'єднання закриваються. З'єднання, запис у яке висить з моменту writeCutoff (клієнт
+     * не читає), закривається: заблокований запис падає, і його потік завершує матч як
+     * зазвичай. Watchdog не чекає ні блокування матчу, ні запису в сокет.
+     */
+    void expire(long turnCutoff, long writeCutoff) {
+        for (PlayerConnection p : players) if (p.writeStalledSince(writeCutoff)) p.close();
+        if (!lock.tryLock()) return;
+        PlayerConnection idle, opponent;
+        try {
+            if (over || turnStarted - turnCutoff > 0) return;
+            over = true;
+            idle = players[turn];
+            opponent = players[1 - turn];
+            registry.finished(this, true);
+        } finally {
+            lock.unlock();
+        }
+        Thread.ofVirtual().name("match-timeout").start(() -> {
+            try {
+                idle.sendGameOver(false, Protocol.TURN_TIMEOUT);
+            } catch (IOException ignored) {
+                // гравець, що мовчить, міг уже й від'єднатися
+            }
+            try {
+                opponent.sendGameOver(true, Protocol.OPPONENT_LEFT);
+            } catch (IOException ignored) {
+                // суперник теж від'єднався
+            }
+            // потоки обох з'єднань, заблоковані на читанні, завершаться на закритому сокеті
+            idle.close();
+            opponent.close();
+        });
+    }
+
+    /** Положення корабля в кодуванні протоколу. */
+    static int slotOf(Ship s, int n) {
+        return (s.getRow() * n + s.getCol()) * 2 + (s.isHorizontal() ? 0 : 1);
+    }
+
+    /** Ставить флот з PLACE на порожнє поле; false, якщо розстановка не за правилами. */
+    static boolean place(Board board, int[] fleet, int[] slots) {
+        int n = board.getSize();
+        if (slots.length != fleet.length) return false;
+        for (int i = 0; i < fleet.length; i++) {
+            int slot = slots[i];
+            if (slot < 0 || slot >= 2 * n * n) return false;
+            int r = FleetPlacer.slotRow(slot, n), c = FleetPlacer.slotCol(slot, n);
+            boolean horiz = FleetPlacer.slotHoriz(slot);
+            if (!board.canPlace(r, c, fleet[i], horiz)) return false;
+            board.placeShip(r, c, fleet[i], horiz);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,80 @@
+package battleship.net;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Активні матчі сервера і черга очікування. Гравці, що розставили флот, стають у пару
+ * в порядку приходу; першим стріляє той, хто чекав. Матчі лежать у ConcurrentHashMap
+ * за номером, тож статистику і список можна читати з будь-якого потоку.
+ */
+public final class MatchRegistry {
+    private final ConcurrentHashMap<Long, Match> active = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final ReentrantLock lobby = new ReentrantLock();
+    private PlayerConnection waiting;
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+
+    /** Ставить гравця в чергу або в пару з тим, хто чекає; у другому випадку матч починається. */
+    void join(PlayerConnection p) throws IOException {
+        Match m;
+        lobby.lock();
+        try {
+            if (waiting == null) {
+                waiting = p;
+                return;
+            }
+            m = new Match(ids.incrementAndGet(), waiting, p, this);
+            waiting = null;
+            active.put(m.id, m);
+        } finally {
+            lobby.unlock();
+        }
+        started.increment();
+        m.start();
+    }
+
+    /** Гравець пішов, не дочекавшись пари. */
+    void leaveLobby(PlayerConnection p) {
+        lobby.lock();
+        try {
+            if (waiting == p) waiting = null;
+        } finally {
+            lobby.unlock();
+        }
+    }
+
+    void finished(Match m, boolean byDisconnect) {
+        if (active.remove(m.id) == null) return;
+        if (byDisconnect) abandoned.increment();
+        else finished.increment();
+    }
+
+    /**
+     * Завершує матчі, де гравець, що ходить, не стріляв з моменту turnCutoff, і закриває
+     * з'єднання, запис у які висить з моменту writeCutoff (обидва - System.nanoTime).
+     */
+    void expireTurns(long turnCutoff, long writeCutoff) {
+        for (Match m : active.values()) m.expire(turnCutoff, writeCutoff);
+    }
+
+    public int activeMatches() { return active.size();
+    }
+    public long started() { return started.sum();
+    }
+    public long finished() { return finished.sum();
+    }
+    public long abandoned() { return abandoned.sum();
+    }
+
+    public String metrics() {
+        return String.format("matches: active %d, started %d, finished %d, abandoned %d",
+                activeMatches(), started(), finished(), abandoned());
+    }
+}
@@ -0,0 +1,159 @@
+package battleship.net;
+
+import battleship.core.Board;
+import battleship.core.GameConfig;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервер матчів за протоколом Protocol: кожне з'єднання обслуговує свій віртуальний
+ * потік, який блокується на читанні, тож тисячі одночасних гравців коштують лише
+ * пам'ять їхніх стеків. Матч грається на двох Board за правилами HeadlessGame.
+ */
+public final class MatchServer implements AutoCloseable {
+    // скільки чекати PLACE після підключення, перш ніж розірвати з'єднання
+    private static final int PLACE_TIMEOUT_MILLIS = 60_000;
+    // скільки гравець може думати над пострілом у свій хід
+    private static final long TURN_TIMEOUT_NANOS = 60_000_000_000L;
+    // скільки може висіти запис клієнту, що не читає
+    private static final long WRITE_TIMEOUT_NANOS = 10_000_000_000L;
+    // як часто перевіряти тайм-аути ходів
+    private static final long WATCHDOG_PERIOD_MILLIS = 1_000;
+
+    private final GameConfig config;
+    private final ServerSocket server;
+    private final MatchRegistry registry = new MatchRegistry();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Thread acceptor;
+    private final Thread watchdog;
+
+    /** Слухає порт port (0 - будь-який вільний) на адресі bind (null - усі адреси). */
+    public MatchServer(GameConfig config, InetAddress bind, int port) throws IOException {
+        this.config = config;
+        server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(bind, port), 4096);
+        acceptor = Thread.ofVirtual().name("match-accept").start(this::acceptLoop);
+        watchdog = Thread.ofVirtual().name("match-turns").start(this::watchTurns);
+    }
+
+    public int port() { return server.getLocalPort();
+    }
+    public MatchRegistry registry() { return registry;
+    }
+    public int connections() { return connections.get();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            Socket s;
+            try {
+                s = server.accept();
+            } catch (IOException e) {
+                if (server.isClosed()) return;
+                continue;
+            }
+            Thread.ofVirtual().name("match-conn").start(() -> serve(s));
+        }
+    }
+
+    // тайм-аут - лише для того, чий хід: у лобі і під час ходу суперника гравець мовчить законно
+    private void watchTurns() {
+        while (!server.isClosed()) {
+            try {
+                Thread.sleep(WATCHDOG_PERIOD_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+            registry.expireTurns(now - TURN_TIMEOUT_NANOS, now - WRITE_TIMEOUT_NANOS);
+        }
+    }
+
+    private void serve(Socket socket) {
+        connections.incrementAndGet();
+        PlayerConnection p = null;
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(PLACE_TIMEOUT_MILLIS);
+            p = new PlayerConnection(socket, new Board(config.n, config.fleet));
+            p.sendWelcome(config.n, config.fleet);
+            if (!readFleet(p)) return;
+            // далі мовчання в чужий хід законне, а свій хід обмежує watchTurns
+            socket.setSoTimeout(0);
+            registry.join(p);
+            while (true) {
+                int type = p.in.readUnsignedByte();
+                if (type != Protocol.SHOOT) {
+                    p.sendError(Protocol.BAD_MESSAGE);
+                    return;
+                }
+                int cell = p.in.readInt();
+                Match m = p.match;
+                if (m == null) {
+                    // пари ще немає - стріляти нікуди
+                    p.sendError(Protocol.NOT_YOUR_TURN);
+                    return;
+                }
+                if (!m.shoot(p, cell)) return;
+            }
+        } catch (IOException e) {
+            // клієнт закрив з'єднання, не розставив флот вчасно, програв за часом або мережа його розірвала
+        } finally {
+            if (p != null) {
+                Match m = p.match;
+                if (m != null) m.leave(p);
+                else registry.leaveLobby(p);
+                p.close();
+            } else {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // уже закрите
+                }
+            }
+            connections.decrementAndGet();
+        }
+    }
+
+    private boolean readFleet(PlayerConnection p) throws IOException {
+        int type = p.in.readUnsignedByte();
+        if (type != Protocol.PLACE) {
+            p.sendError(Protocol.BAD_MESSAGE);
+            return false;
+        }
+        int count = p.in.readUnsignedShort();
+        int[] slots = new int[count];
+        for (int i = 0; i < count; i++) slots[i] = p.in.readInt();
+        if (!Match.place(p.board, config.fleet, slots)) {
+            p.sendError(Protocol.BAD_PLACEMENT);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        acceptor.interrupt();
+        watchdog.interrupt();
+    }
+
+    /** Аргументи: [порт, 0 - будь-який] [розмір поля] [флот]. */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        GameConfig config = GameConfig.of(args.length > 1 ? Integer.parseInt(args[1]) : 10,
+                args.length > 2 ? args[2] : "standard");
+        MatchServer server = new MatchServer(config, null, port);
+        System.out.println("match server on port " + server.port() + ", " + config);
+        while (true) {
+            Thread.sleep(10_000);
+            System.out.println("connections " + server.connections() + ", " + server.registry().metrics());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package battleship.net;
+
+import battleship.core.Board;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * З'єднання гравця на сервері: своє поле і потоки сокета. Повідомлення пишуть і потік
+ * цього гравця, і потік суперника, тож запис - під окремим блокуванням (ReentrantLock,
+ * а не synchronized: віртуальний потік у synchronized займає потік-носій).
+ */
+final class PlayerConnection implements AutoCloseable {
+    final Socket socket;
+    final DataInputStream in;
+    private final DataOutputStream out;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    final Board board;
+    // матч, куди гравця поставив реєстр; до цього - null
+    volatile Match match;
+    // коли почався запис, що ще не завершився (System.nanoTime з молодшим бітом 1), або 0
+    private volatile long writeStarted;
+
+    PlayerConnection(Socket socket, Board board) throws IOException {
+        this.socket = socket;
+        this.board = board;
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    void sendWelcome(int n, int[] fleet) throws IOException {
+        writeLock.lock();
+        writeStarted = System.nanoTime() | 1;
+        try {
+            out.writeByte(Protocol.WELCOME);
+            out.writeByte(Protocol.VERSION);
+            out.writeShort(n);
+            out.writeShort(fleet.length);
+            for (int size : fleet) out.writeByte(size);
+            out.flush();
+        } finally {
+            writeStarted = 0;
+            writeLock.unlock();
+        }
+    }
+
+    void sendStart(boolean first) throws IOException { send(Protocol.START, first ? 1 : 0);
+    }
+
+    void sendResult(int cell, int result) throws IOException {
+        writeLock.lock();
+        writeStarted = System.nanoTime() | 1;
+        try {
+            out.writeByte(Protocol.RESULT);
+            out.writeInt(cell);
+            out.writeByte(result);
+            out.flush();
+        } finally {
+            writeStarted = 0;
+            writeLock.unlock();
+        }
+    }
+
+    void sendSunk(int cell, int slot, int size) throws IOException {
+        writeLock.lock();
+        writeStarted = System.nanoTime() | 1;
+        try {
+            out.writeByte(Protocol.SUNK);
+            out.writeInt(cell);
+            out.writeInt(slot);
+            out.writeByte(size);
+            out.flush();
+        } finally {
+            writeStarted = 0;
+            writeLock.unlock();
+        }
+    }
+
+    void sendOpponentShot(int cell, int result) throws IOException {
+        writeLock.lock();
+        writeStarted = System.nanoTime() | 1;
+        try {
+            out.writeByte(Protocol.OPPONENT_SHOT);
+            out.writeInt(cell);
+            out.writeByte(result);
+            out.flush();
+        } finally {
+            writeStarted = 0;
+            writeLock.unlock();
+        }
+    }
+
+    void sendGameOver(boolean won, int reason) throws IOException {
+        writeLock.lock();
+        writeStarted = System.nanoTime() | 1;
+        try {
+            out.writeByte(Protocol.GAME_OVER);
+            out.writeByte(won ? 1 : 0);
+            out.writeByte(reason);
+            out.flush();
+        } finally {
+            writeStarted = 0;
+            writeLock.unlock();
+        }
+    }
+
+    void sendError(int code) throws IOException { send(Protocol.ERROR, code);
+    }
+
+    private void send(byte type, int value) throws IOException {
+        writeLock.lock();
+        writeStarted = System.nanoTime() | 1;
+        try {
+            out.writeByte(type);
+            out.writeByte(value);
+            out.flush();
+        } finally {
+            writeStarted = 0;
+            writeLock.unlock();
+        }
+    }
+
+    /** Запис почався до cutoff (System.nanoTime) і досі не завершився - клієнт не читає. */
+    boolean writeStalledSince(long cutoff) {
+        long started = writeStarted;
+        return started != 0 && started - cutoff <= 0;
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // з'єднання вже розірване
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package battleship.net;
+
+/**
+ * Двійковий протокол сервера матчів. Кожне повідомлення - байт типу і поля фіксованої
+ * довжини (DataOutputStream, big-endian): u8/u16 - беззнакові байт і short, i32 - int.
+ * Клітина - r * n + c, положення корабля - як у FleetPlacer: (r * n + c) * 2 + (вертикально ? 1 : 0).
+ *
+ * Сервер - клієнту:
+ *   WELCOME       u8 версія, u16 n, u16 кількість кораблів, u8 розміри
+ *   START         u8 1, якщо клієнт стріляє першим
+ *   RESULT        i32 клітина, u8 MISS або HIT - відповідь на SHOOT
+ *   SUNK          i32 клітина, i32 положення корабля, u8 розмір - відповідь на SHOOT, що потопила корабель;
+ *                 клітини навколо нього відкриваються, як у грі
+ *   OPPONENT_SHOT i32 клітина, u8 MISS, HIT або SUNK - постріл суперника по полю клієнта
+ *   GAME_OVER     u8 1, якщо клієнт виграв; u8 причина (FINISHED, OPPONENT_LEFT або TURN_TIMEOUT)
+ *   ERROR         u8 код; після нього сервер закриває з'єднання
+ * Клієнт - серверу:
+ *   PLACE         u16 кількість кораблів, i32 положення кожного в порядку флоту з WELCOME
+ *   SHOOT         i32 клітина
+ *
+ * Правила - як у HeadlessGame: після попадання клієнт стріляє ще раз, після промаху хід
+ * переходить до суперника, повторний постріл - промах. Хто не стріляє у свій хід довше
+ * за тайм-аут ходу сервера, програє з TURN_TIMEOUT; чекати пари і ходу суперника можна скільки завгодно.
+ */
+public final class Protocol {
+    public static final int VERSION = 1;
+
+    public static final byte WELCOME = 1;
+    public static final byte START = 2;
+    public static final byte RESULT = 3;
+    public static final byte SUNK = 4;
+    public static final byte OPPONENT_SHOT = 5;
+    public static final byte GAME_OVER = 6;
+    public static final byte ERROR = 7;
+
+    public static final byte PLACE = 16;
+    public static final byte SHOOT = 17;
+
+    // результат пострілу
+    public static final int MISS = 0;
+    public static final int HIT = 1;
+    public static final int SUNK_SHIP = 2;
+
+    // причина кінця гри
+    public static final int FINISHED = 0;
+    public static final int OPPONENT_LEFT = 1;
+    public static final int TURN_TIMEOUT = 2;
+
+    // коди помилок
+    public static final int BAD_MESSAGE = 1;
+    public static final int BAD_PLACEMENT = 2;
+    public static final int NOT_YOUR_TURN = 3;
+    public static final int BAD_CELL = 4;
+
+    private Protocol() {
+    }
+}
@@ -0,0 +1,125 @@
+package battleship.record;
+
+import battleship.core.GameConfig;
+import battleship.core.LayoutCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Заголовок архіву ігор (усі числа little-endian):
+ * <pre>
+ * "BSGR" | версія u8 | кодування пострілів u8 | n u16 | кораблів u32 | розміри u8...
+ *        | гравців u8 | (довжина u8, ім'я UTF-8)...
+ * </pre>
+ * За ним ідуть записи ігор:
+ * <pre>
+ * довжина решти запису u32 | прапорці u8 (біт 0 - переможець) | перший гравець u8 | другий u8
+ *        | розстановка першого | розстановка другого | пострілів varint | постріли
+ * </pre>
+ * Розстановка - LayoutCodec без хвостових нульових байтів. Постріли йдуть по черзі обох
+ * гравців: хто стріляє, визначається правилами (після промаху хід переходить).
+ */
+public final class ArchiveHeader {
+    static final int MAGIC = 'B' | 'S' << 8 | 'G' << 16 | 'R' << 24;
+    static final int VERSION = 1;
+    // довжина, прапорці і гравці
+    static final int RECORD_PREFIX = 4 + 3;
+
+    public final int n;
+    public final int[] fleet;
+    public final ShotEncoding encoding;
+    public final List<String> players;
+    final LayoutCodec codec;
+    final int layoutBytes;
+    final int headerBytes;
+
+    public ArchiveHeader(GameConfig config, ShotEncoding encoding, List<String> players) {
+        if (encoding == ShotEncoding.FIXED16 && config.n * config.n > 1 << 16)
+            throw new IllegalArgumentException("Поле " + config.n + "x" + config.n + " не вміщається в 2 байти на постріл");
+        if (players.size() > 255) throw new IllegalArgumentException("Більше 255 гравців в одному архіві");
+        this.n = config.n;
+        this.fleet = config.fleet;
+        this.encoding = encoding;
+        this.players = List.copyOf(players);
+        codec = new LayoutCodec(n, fleet);
+        int bits = 32 - Integer.numberOfLeadingZeros(2 * n * n - 1);
+        layoutBytes = (int) (((long) bits * fleet.length + 7) >>> 3);
+        int size = 4 + 1 + 1 + 2 + 4 + fleet.length + 1;
+        for (String p : this.players) size += 1 + nameBytes(p).length;
+        headerBytes = size;
+    }
+
+    public GameConfig config() { return new GameConfig(n, fleet);
+    }
+    public LayoutCodec codec() { return codec;
+    }
+
+    /** Найбільший можливий запис гри: кожну клітину обох полів прострілено один раз. */
+    long maxRecordBytes() {
+        long shots = 2L * n * n;
+        int perShot = encoding == ShotEncoding.FIXED16 ? 2 : 5;
+        return RECORD_PREFIX + 2L * layoutBytes + 5 + shots * perShot;
+    }
+
+    private static byte[] nameBytes(String name) {
+        byte[] b = name.getBytes(StandardCharsets.UTF_8);
+        if (b.length > 255) throw new IllegalArgumentException("Задовге ім'я гравця: " + name);
+        return b;
+    }
+
+    ByteBuffer encode() {
+        ByteBuffer b = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(MAGIC).put((byte) VERSION).put((byte) encoding.ordinal()).putShort((short) n).putInt(fleet.length);
+        for (int size : fleet) b.put((byte) size);
+        b.put((byte) players.size());
+        for (String p : players) {
+            byte[] name = nameBytes(p);
+            b.put((byte) name.length).put(name);
+        }
+        return b.flip();
+    }
+
+    /** Читає заголовок з поточної позиції b (little-endian). */
+    static ArchiveHeader decode(ByteBuffer b) {
+        if (b.remaining() < 12 || b.getInt() != MAGIC) throw new IllegalArgumentException("Це не архів ігор");
+        int version = b.get() & 0xFF;
+        if (version != VERSION) throw new IllegalArgumentException("Непідтримувана версія архіву: " + version);
+        ShotEncoding encoding = ShotEncoding.values()[b.get()];
+        int n = b.getShort() & 0xFFFF;
+        int[] fleet = new int[b.getInt()];
+        for (int i = 0; i < fleet.length; i++) fleet[i] = b.get() & 0xFF;
+        String[] players = new String[b.get() & 0xFF];
+        for (int i = 0; i < players.length; i++) {
+            byte[] name = new byte[b.get() & 0xFF];
+            b.get(name);
+            players[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        return new ArchiveHeader(new GameConfig(n, fleet), encoding, Arrays.asList(players));
+    }
+
+    /** Той самий формат: розмір, флот, кодування і гравці. */
+    boolean sameAs(ArchiveHeader o) {
+        return n == o.n && Arrays.equals(fleet, o.fleet) && encoding == o.encoding && players.equals(o.players);
+    }
+
+    static void putVarint(ByteBuffer b, int v) {
+        while ((v & ~0x7F) != 0) {
+            b.put((byte) (v & 0x7F | 0x80));
+            v >>>= 7;
+        }
+        b.put((byte) v);
+    }
+
+    static int varintSize(int v) {
+        int k = 1;
+        while ((v & ~0x7F) != 0) {
+            v >>>= 7;
+            k++;
+        }
+        return k;
+    }
+}
@@ -0,0 +1,164 @@
+package battleship.record;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Читання архіву ігор через відображення файлу в пам'ять. Файл відображається вікнами
+ * по 1 ГБ з перекриттям на найбільший можливий запис, тож кожен запис цілком лежить
+ * в одному вікні. Записи читаються на місці абсолютними get, тож один архів можуть
+ * читати кілька потоків, кожен зі своїм курсором. Недописаний останній запис пропускається.
+ */
+public final class GameArchive implements AutoCloseable {
+    private static final long WINDOW = 1L << 30;
+    // кожна така кількість ігор потрапляє в розріджений індекс
+    static final int CHECKPOINT = 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long overlap;
+    private final MappedByteBuffer[] windows;
+    private final ArchiveHeader header;
+    // зсуви ігор 0, CHECKPOINT, 2 * CHECKPOINT, ...; будуються при першому count()
+    private long[] checkpoints;
+    private long count = -1;
+
+    private GameArchive(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+        windows = new MappedByteBuffer[(int) Math.max(1, (size + WINDOW - 1) / WINDOW)];
+        MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW));
+        head.order(ByteOrder.LITTLE_ENDIAN);
+        header = ArchiveHeader.decode(head);
+        overlap = Math.min(header.maxRecordBytes(), Integer.MAX_VALUE - WINDOW);
+    }
+
+    public static GameArchive open(Path path) throws IOException {
+        return new GameArchive(path);
+    }
+
+    public ArchiveHeader header() { return header;
+    }
+    public long firstOffset() { return header.headerBytes;
+    }
+    public long endOffset() { return size;
+    }
+
+    private synchronized MappedByteBuffer window(int i) {
+        MappedByteBuffer w = windows[i];
+        if (w == null) {
+            long start = i * WINDOW;
+            try {
+                w = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, WINDOW + overlap));
+            } catch (IOException e) {
+                throw new IllegalStateException("Не вдалося відобразити архів з позиції " + start, e);
+            }
+            w.order(ByteOrder.LITTLE_ENDIAN);
+            windows[i] = w;
+        }
+        return w;
+    }
+
+    /** Завантажує запис за зсувом offset у rec; false, якщо запис не вміщається у файл. */
+    boolean load(GameRecord rec, long offset) {
+        if (offset + 4 > size) return false;
+        int i = (int) (offset / WINDOW);
+        MappedByteBuffer w = window(i);
+        int local = (int) (offset - i * WINDOW);
+        long len = w.getInt(local) & 0xFFFFFFFFL;
+        if (offset + 4 + len > size || len < ArchiveHeader.RECORD_PREFIX - 4) return false;
+        rec.reset(w, local, offset);
+        return true;
+    }
+
+    /** Курсор по всіх іграх. */
+    public Cursor cursor() { return new Cursor(firstOffset(), size);
+    }
+
+    /** Курсор по іграх, що починаються в [from, to); from має бути початком запису. */
+    public Cursor cursor(long from, long to) { return new Cursor(from, Math.min(to, size));
+    }
+
+    /** Кількість повних ігор; перший виклик переглядає довжини всіх записів. */
+    public synchronized long count() {
+        if (count >= 0) return count;
+        long[] cp = new long[16];
+        int cps = 0;
+        long games = 0, pos = firstOffset();
+        GameRecord rec = new GameRecord(header);
+        while (load(rec, pos)) {
+            if (games % CHECKPOINT == 0) {
+                if (cps == cp.length) cp = Arrays.copyOf(cp, cps * 2);
+                cp[cps++] = pos;
+            }
+            games++;
+            pos = rec.nextOffset();
+        }
+        checkpoints = Arrays.copyOf(cp, cps);
+        count = games;
+        return count;
+    }
+
+    /** Гра за номером: до CHECKPOINT - 1 пропусків від найближчої точки індексу. */
+    public GameRecord get(long index) {
+        if (index < 0 || index >= count()) throw new IndexOutOfBoundsException("Гра " + index + " з " + count);
+        GameRecord rec = new GameRecord(header);
+        long pos = checkpoints[(int) (index / CHECKPOINT)];
+        load(rec, pos);
+        for (long k = index % CHECKPOINT; k > 0; k--) load(rec, rec.nextOffset());
+        return rec;
+    }
+
+    /**
+     * Ділить архів на не більше ніж parts діапазонів [from, to) приблизно з однаковою
+     * кількістю ігор, по межах записів.
+     */
+    public List<long[]> partitions(int parts) {
+        count();
+        List<long[]> res = new ArrayList<>();
+        int cps = checkpoints.length;
+        if (cps == 0) return res;
+        parts = Math.max(1, Math.min(parts, cps));
+        for (int k = 0; k < parts; k++) {
+            long from = checkpoints[(int) ((long) k * cps / parts)];
+            long to = k + 1 < parts ? checkpoints[(int) ((long) (k + 1) * cps / parts)] : size;
+            res.add(new long[]{from, to});
+        }
+        return res;
+    }
+
+    /** Послідовний прохід; одним курсором користується один потік. */
+    public final class Cursor {
+        private final GameRecord rec = new GameRecord(header);
+        private long pos;
+        private final long end;
+
+        Cursor(long from, long end) {
+            this.pos = from;
+            this.end = end;
+        }
+
+        /** Переходить до наступної гри; false наприкінці діапазону. */
+        public boolean next() {
+            if (pos >= end || !load(rec, pos)) return false;
+            pos = rec.nextOffset();
+            return true;
+        }
+
+        public GameRecord record() { return rec;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // відображення звільнить збирач сміття, коли на буфери не лишиться посилань
+        channel.close();
+    }
+}
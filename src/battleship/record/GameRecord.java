@@ -0,0 +1,119 @@
+package battleship.record;
+
+import battleship.core.Board;
+import battleship.sim.HeadlessGame;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+/**
+ * Запис однієї гри прямо у відображеному файлі, без копіювання. Курсор архіву
+ * перевикористовує той самий об'єкт для наступної гри, тож дані треба забрати до next().
+ */
+public final class GameRecord {
+    private final ArchiveHeader header;
+    private ByteBuffer buf;
+    private int base;
+    private long offset;
+    private int length;
+    private int shotCount;
+    private int shotsStart;
+    // позиція для послідовного читання varint: постріл shotIdx починається з shotPos
+    private int shotIdx, shotPos;
+
+    GameRecord(ArchiveHeader header) { this.header = header;
+    }
+
+    void reset(ByteBuffer buf, int base, long offset) {
+        this.buf = buf;
+        this.base = base;
+        this.offset = offset;
+        length = buf.getInt(base);
+        int p = base + ArchiveHeader.RECORD_PREFIX + 2 * header.layoutBytes;
+        int v = 0, shift = 0, b;
+        do {
+            b = buf.get(p++);
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        shotCount = v;
+        shotsStart = p;
+        shotIdx = 0;
+        shotPos = p;
+    }
+
+    /** Зсув запису у файлі. */
+    public long offset() { return offset;
+    }
+    public long nextOffset() { return offset + 4 + length;
+    }
+    public int winner() { return buf.get(base + 4) & 1;
+    }
+    /** Номер першого гравця в header().players. */
+    public int firstPlayer() { return buf.get(base + 5) & 0xFF;
+    }
+    public int secondPlayer() { return buf.get(base + 6) & 0xFF;
+    }
+    public int shotCount() { return shotCount;
+    }
+
+    /** Розстановка першого (player = 0) або другого гравця у форматі LayoutCodec. */
+    public long[] layout(int player) {
+        long[] res = new long[header.codec.wordCount()];
+        int p = base + ArchiveHeader.RECORD_PREFIX + player * header.layoutBytes;
+        for (int i = 0; i < header.layoutBytes; i++) res[i >>> 3] |= (buf.get(p + i) & 0xFFL) << ((i & 7) << 3);
+        return res;
+    }
+
+    /** Клітина k-того пострілу; для VARINT швидкий лише послідовний доступ. */
+    public int shot(int k) {
+        if (k < 0 || k >= shotCount) throw new IndexOutOfBoundsException("Постріл " + k + " з " + shotCount);
+        if (header.encoding == ShotEncoding.FIXED16)
+            return ShotEncoding.checkCell(buf.getShort(shotsStart + 2 * k) & 0xFFFF, header.n, k);
+        if (k < shotIdx) {
+            shotIdx = 0;
+            shotPos = shotsStart;
+        }
+        while (shotIdx < k) {
+            while (buf.get(shotPos++) < 0) {
+                // пропуск продовження varint
+            }
+            shotIdx++;
+        }
+        int p = shotPos, v = 0, shift = 0, b;
+        do {
+            b = buf.get(p++);
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return ShotEncoding.checkCell(v, header.n, k);
+    }
+
+    public void forEachShot(IntConsumer action) {
+        for (int k = 0; k < shotCount; k++) action.accept(shot(k));
+    }
+
+    /** Ставить розстановки на поля і програє всі постріли. */
+    public HeadlessGame.Result replay(Board firstBoard, Board secondBoard) {
+        int[] shots = new int[2];
+        replay(firstBoard, secondBoard, shotCount, shots);
+        return new HeadlessGame.Result(winner(), shots[0], shots[1]);
+    }
+
+    /**
+     * Ставить розстановки і програє перші moves пострілів; shots (якщо не null) отримує
+     * кількість пострілів кожного гравця. Повертає гравця, чий хід наступний.
+     */
+    public int replay(Board firstBoard, Board secondBoard, int moves, int[] shots) {
+        firstBoard.loadLayout(header.codec, layout(0));
+        secondBoard.loadLayout(header.codec, layout(1));
+        Board[] targets = {secondBoard, firstBoard};
+        int n = header.n, turn = 0;
+        for (int k = 0; k < Math.min(moves, shotCount); k++) {
+            int cell = shot(k);
+            if (shots != null) shots[turn]++;
+            if (HeadlessGame.shoot(targets[turn], cell / n, cell % n) == HeadlessGame.MISS) turn = 1 - turn;
+        }
+        return turn;
+    }
+}
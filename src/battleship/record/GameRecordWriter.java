@@ -0,0 +1,142 @@
+package battleship.record;
+
+import battleship.core.Board;
+import battleship.sim.HeadlessGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Дописує ігри в кінець архіву через FileChannel. Записи збираються в буфері
+ * і скидаються на диск великими блоками. Якщо файл уже існує, його заголовок
+ * має збігатися з заданим, а недописаний хвіст (обрив посеред flush) відрізається
+ * до кінця останнього повного запису. append можна викликати з кількох потоків.
+ */
+public final class GameRecordWriter implements AutoCloseable {
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final ArchiveHeader header;
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private long games;
+
+    public GameRecordWriter(Path path, ArchiveHeader header) throws IOException {
+        this.header = header;
+        boolean exists = Files.exists(path) && Files.size(path) > 0;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (exists) {
+            // з запасом на довший заголовок (інші гравці), щоб повідомити про різницю
+            ByteBuffer head = ByteBuffer.allocate((int) Math.min(channel.size(), header.headerBytes + (1 << 16)))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(head, 0);
+            ArchiveHeader existing;
+            try {
+                existing = ArchiveHeader.decode(head.flip());
+            } catch (RuntimeException e) {
+                channel.close();
+                throw new IOException("Файл " + path + " не є архівом ігор", e);
+            }
+            if (!existing.sameAs(header)) {
+                channel.close();
+                throw new IOException("Архів " + path + " має інший заголовок: поле " + existing.n + ", гравці " + existing.players);
+            }
+            long end = completeEnd(channel, header);
+            if (end < channel.size()) channel.truncate(end);
+            channel.position(end);
+        } else {
+            channel.truncate(0);
+            ByteBuffer head = header.encode();
+            while (head.hasRemaining()) channel.write(head);
+        }
+    }
+
+    public ArchiveHeader header() { return header;
+    }
+
+    // кінець останнього повного запису: ланцюжок довжин, доки запис вміщається у файл
+    private static long completeEnd(FileChannel channel, ArchiveHeader header) throws IOException {
+        long size = channel.size(), pos = header.headerBytes, max = header.maxRecordBytes();
+        ByteBuffer buf = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN).limit(0);
+        long bufStart = 0;
+        while (pos + 4 <= size) {
+            if (pos + 4 > bufStart + buf.limit()) {
+                buf.clear();
+                bufStart = pos;
+                while (buf.hasRemaining() && channel.read(buf, bufStart + buf.position()) > 0) {
+                    // дочитування до кінця буфера або файлу
+                }
+                buf.flip();
+            }
+            long body = buf.getInt((int) (pos - bufStart)) & 0xFFFFFFFFL;
+            if (body < ArchiveHeader.RECORD_PREFIX - 4 || body + 4 > max || pos + 4 + body > size) break;
+            pos += 4 + body;
+        }
+        return pos;
+    }
+
+    /** Кількість ігор, дописаних цим записувачем. */
+    public synchronized long games() { return games;
+    }
+
+    /** Останню гру game (з увімкненим setRecording) між гравцями з номерами first і second. */
+    public void append(HeadlessGame game, HeadlessGame.Result res, int first, int second) throws IOException {
+        append(res.winner, first, second, game.firstBoard(), game.secondBoard(), game.lastShots(), game.lastShotCount());
+    }
+
+    public void append(int winner, int first, int second, Board firstBoard, Board secondBoard, int[] shots, int shotCount)
+            throws IOException {
+        append(winner, first, second, header.codec.encode(firstBoard), header.codec.encode(secondBoard), shots, shotCount);
+    }
+
+    public synchronized void append(int winner, int first, int second, long[] firstLayout, long[] secondLayout,
+                                    int[] shots, int shotCount) throws IOException {
+        if (first >= header.players.size() || second >= header.players.size())
+            throw new IllegalArgumentException("Немає гравця з номером " + Math.max(first, second));
+        boolean fixed = header.encoding == ShotEncoding.FIXED16;
+        long body = 3 + 2L * header.layoutBytes + ArchiveHeader.varintSize(shotCount);
+        if (fixed) {
+            body += 2L * shotCount;
+        } else {
+            for (int k = 0; k < shotCount; k++) body += ArchiveHeader.varintSize(shots[k]);
+        }
+        if (body + 4 > buffer.remaining()) {
+            flush();
+            if (body + 4 > buffer.capacity())
+                buffer = ByteBuffer.allocateDirect((int) (body + 4)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        buffer.putInt((int) body);
+        buffer.put((byte) (winner & 1)).put((byte) first).put((byte) second);
+        putLayout(firstLayout);
+        putLayout(secondLayout);
+        ArchiveHeader.putVarint(buffer, shotCount);
+        for (int k = 0; k < shotCount; k++) {
+            if (fixed) buffer.putShort((short) shots[k]);
+            else ArchiveHeader.putVarint(buffer, shots[k]);
+        }
+        games++;
+    }
+
+    private void putLayout(long[] layout) {
+        for (int i = 0; i < header.layoutBytes; i++) buffer.put((byte) (layout[i >>> 3] >>> ((i & 7) << 3)));
+    }
+
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
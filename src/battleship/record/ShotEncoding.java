@@ -0,0 +1,20 @@
+package battleship.record;
+
+/** Як у записі гри зберігаються постріли. */
+public enum ShotEncoding {
+    /** 2 байти на постріл, поле до 256x256; дозволяє довільний доступ до пострілу. */
+    FIXED16,
+    /** Змінна довжина (7 біт на байт): 1-3 байти для полів до 2048x2048, до 4 - для більших. */
+    VARINT;
+
+    /** Найкомпактніше: VARINT, якщо клітина вміщається в 1 байт або не вміщається в 2, інакше FIXED16. */
+    public static ShotEncoding forSize(int n) { return n * n <= 1 << 7 || n * n > 1 << 16 ? VARINT : FIXED16;
+    }
+
+    /** Прочитана з архіву клітина k-того пострілу; поза полем n x n - архів пошкоджений. */
+    static int checkCell(int cell, int n, int k) {
+        if (cell < 0 || cell >= n * n)
+            throw new IllegalStateException("Пошкоджений запис: постріл " + k + " у клітину " + cell + " поза полем " + n + "x" + n);
+        return cell;
+    }
+}
@@ -0,0 +1,188 @@
+package battleship.sim;
+
+import battleship.ai.MoveCache;
+import battleship.ai.Strategies;
+import battleship.ai.StrategyMetrics;
+import battleship.ai.TargetingStrategy;
+import battleship.core.GameConfig;
+import battleship.core.OpeningBook;
+import battleship.core.SplitMixRandom;
+import battleship.core.TargetCache;
+import battleship.metrics.MetricsRegistry;
+import battleship.record.ArchiveHeader;
+import battleship.record.GameRecordWriter;
+import battleship.record.ShotEncoding;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Розподіляє N ігор по всіх ядрах через fork-join; кожна частина має власний генератор
+ * і власні екземпляри стратегій, створені фабриками. Гра g грається з seed
+ * SplitMixRandom.gameSeed(seed, g), тож її можна відтворити окремо.
+ */
+public final class BatchRunner {
+    private static final int CHUNK = 256;
+    // станів після дебютної книги в кеші ходів кожної сторони
+    private static final int BOOK_CACHE = 1 << 16;
+
+    private final int n;
+    private final int[] shipSizes;
+    private final Function<RandomGenerator, TargetingStrategy> first;
+    private final Function<RandomGenerator, TargetingStrategy> second;
+    private final ForkJoinPool pool;
+    private GameListener listener;
+    private PlacementPool placements;
+
+    /** Викликається після кожної гри в потоці, що її зіграв. */
+    @FunctionalInterface
+    public interface GameListener {
+        void gameFinished(HeadlessGame game, HeadlessGame.Result res) throws IOException;
+    }
+
+    public BatchRunner(int n, int[] shipSizes, Function<RandomGenerator, TargetingStrategy> first,
+                       Function<RandomGenerator, TargetingStrategy> second, int threads) {
+        this.n = n;
+        this.shipSizes = shipSizes;
+        this.first = first;
+        this.second = second;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    public BatchRunner(int n, int[] shipSizes) {
+        this(n, shipSizes, Strategies.factory("optimized"), Strategies.factory("optimized"),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchStats run(long games, long seed) {
+        long start = System.nanoTime();
+        BatchStats stats = pool.invoke(new Part(0, games, seed));
+        stats.elapsedNanos = System.nanoTime() - start;
+        return stats;
+    }
+
+    public void shutdown() { pool.shutdown();
+    }
+
+    /** Слухач ігор; з ним HeadlessGame записує постріли кожної гри. */
+    public void setListener(GameListener listener) { this.listener = listener;
+    }
+
+    /** Спільний пул розстановок для всіх частин; з ним ігри вже не відтворюються за seed. */
+    public void setPlacementPool(PlacementPool placements) { this.placements = placements;
+    }
+
+    private final class Part extends RecursiveTask<BatchStats> {
+        final long from, to, seed;
+
+        Part(long from, long to, long seed) {
+            this.from = from;
+            this.to = to;
+            this.seed = seed;
+        }
+
+        @Override
+        protected BatchStats compute() {
+            if (to - from <= CHUNK) {
+                BatchStats stats = new BatchStats(n * n);
+                // генератор частини отримує перед кожною грою її seed: гра залежить лише від
+                // головного seed і свого номера, а не від потоків і меж частин
+                SplitMixRandom rnd = new SplitMixRandom(seed);
+                HeadlessGame game = new HeadlessGame(n, shipSizes, first.apply(rnd), second.apply(rnd));
+                game.setRecording(listener != null);
+                if (placements != null) game.usePool(placements);
+                for (long g = from; g < to; g++) {
+                    rnd.reseed(SplitMixRandom.gameSeed(seed, g));
+                    HeadlessGame.Result res = game.play(rnd);
+                    stats.add(res);
+                    if (listener != null) {
+                        try {
+                            listener.gameFinished(game, res);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }
+                return stats;
+            }
+            long mid = (from + to) >>> 1;
+            Part left = new Part(from, mid, seed);
+            left.fork();
+            BatchStats right = new Part(mid, to, seed).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        if (threads <= 0) threads = Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        String firstName = args.length > 3 ? args[3] : "optimized";
+        String secondName = args.length > 4 ? args[4] : firstName;
+        int n = args.length > 5 ? Integer.parseInt(args[5]) : 10;
+        GameConfig config = GameConfig.of(n, args.length > 6 ? args[6] : "standard");
+        StrategyMetrics firstMetrics = new StrategyMetrics("first " + firstName);
+        StrategyMetrics secondMetrics = new StrategyMetrics("second " + secondName);
+        Function<RandomGenerator, TargetingStrategy> firstFactory = Strategies.factory(firstName);
+        Function<RandomGenerator, TargetingStrategy> secondFactory = Strategies.factory(secondName);
+        TargetCache targetCache = null;
+        long targetCacheMb = args.length > 9 && !args[9].isEmpty() ? Long.parseLong(args[9]) : 0;
+        if (targetCacheMb > 0) {
+            // кеш потрібен лише повному перерахунку: optimized оновлює карту інкрементально і з кешем повільніший
+            targetCache = new TargetCache(targetCacheMb << 20);
+            if (firstName.equals("heatmap")) firstFactory = Strategies.withTargetCache(firstFactory, targetCache);
+            if (secondName.equals("heatmap")) secondFactory = Strategies.withTargetCache(secondFactory, targetCache);
+        }
+        OpeningBook book = null;
+        MoveCache firstCache = null, secondCache = null;
+        if (args.length > 8 && !args[8].isEmpty()) {
+            book = OpeningBook.load(Path.of(args[8]));
+            if (book.n != config.n || !Arrays.equals(book.fleet, config.fleet))
+                throw new IllegalArgumentException("Книга " + args[8] + " для іншого поля або флоту");
+            // кеш у кожної сторони свій: ходи різних стратегій змішувати не можна
+            if (Strategies.usesHeatMap(firstName))
+                firstFactory = Strategies.withBook(firstFactory, book, firstCache = new MoveCache(BOOK_CACHE));
+            if (Strategies.usesHeatMap(secondName))
+                secondFactory = Strategies.withBook(secondFactory, book, secondCache = new MoveCache(BOOK_CACHE));
+        }
+        BatchRunner runner = new BatchRunner(config.n, config.fleet,
+                Strategies.instrumented(firstFactory, firstMetrics),
+                Strategies.instrumented(secondFactory, secondMetrics), threads);
+        PlacementPool placements = null;
+        int poolCapacity = args.length > 10 && !args[10].isEmpty() ? Integer.parseInt(args[10]) : 0;
+        if (poolCapacity > 0) {
+            boolean symmetric = args.length > 11 && Boolean.parseBoolean(args[11]);
+            placements = new PlacementPool(config.n, config.fleet, poolCapacity, symmetric, seed);
+            runner.setPlacementPool(placements);
+        }
+        GameRecordWriter writer = null;
+        if (args.length > 7 && !args[7].isEmpty()) {
+            ArchiveHeader header = new ArchiveHeader(config, ShotEncoding.forSize(config.n), List.of(firstName, secondName));
+            GameRecordWriter w = writer = new GameRecordWriter(Path.of(args[7]), header);
+            runner.setListener((game, res) -> w.append(game, res, 0, 1));
+        }
+        try {
+            System.out.print(runner.run(games, seed).report());
+        } finally {
+            if (writer != null) writer.close();
+            if (placements != null) placements.close();
+            runner.shutdown();
+        }
+        System.out.print(firstMetrics.report());
+        System.out.print(secondMetrics.report());
+        if (book != null) System.out.println(book.metrics());
+        if (firstCache != null) System.out.println("first " + firstCache.metrics());
+        if (secondCache != null) System.out.println("second " + secondCache.metrics());
+        if (targetCache != null) System.out.println(targetCache.metrics());
+        if (placements != null) System.out.println(placements.metrics());
+        if (MetricsRegistry.enabled()) System.out.print(MetricsRegistry.global().snapshot());
+    }
+}
@@ -0,0 +1,106 @@
+package battleship.sim;
+
+import java.util.Arrays;
+
+/**
+ * Зведена статистика пакета ігор; об'єднується між потоками через merge.
+ * Розподіл пострілів до перемоги - розріджений: лише кількості пострілів, що траплялися,
+ * за зростанням. Щільний масив на n * n + 1 елементів займав би 128 МБ на кожен шматок
+ * ігор уже на полі 4096x4096, хоча шматок з CHUNK ігор має не більше CHUNK різних значень.
+ */
+public final class BatchStats {
+    public long games;
+    public final long[] wins = new long[2];
+    public long totalWinnerShots;
+    public long elapsedNanos;
+    // більше пострілів не рахується окремо
+    private final int cells;
+    // counts[i] ігор виграно за shots[i] пострілів; shots - за зростанням, i < distinct
+    private int[] shots = new int[16];
+    private long[] counts = new long[16];
+    private int distinct;
+
+    public BatchStats(int cells) { this.cells = cells;
+    }
+
+    public void add(HeadlessGame.Result res) {
+        games++;
+        wins[res.winner]++;
+        int k = Math.min(res.winnerShots(), cells);
+        totalWinnerShots += k;
+        int i = Arrays.binarySearch(shots, 0, distinct, k);
+        if (i >= 0) {
+            counts[i]++;
+            return;
+        }
+        i = -i - 1;
+        if (distinct == shots.length) {
+            shots = Arrays.copyOf(shots, distinct * 2);
+            counts = Arrays.copyOf(counts, distinct * 2);
+        }
+        System.arraycopy(shots, i, shots, i + 1, distinct - i);
+        System.arraycopy(counts, i, counts, i + 1, distinct - i);
+        shots[i] = k;
+        counts[i] = 1;
+        distinct++;
+    }
+
+    public BatchStats merge(BatchStats o) {
+        games += o.games;
+        wins[0] += o.wins[0];
+        wins[1] += o.wins[1];
+        totalWinnerShots += o.totalWinnerShots;
+        // злиття двох упорядкованих списків
+        int[] s = new int[distinct + o.distinct];
+        long[] c = new long[s.length];
+        int a = 0, b = 0, d = 0;
+        while (a < distinct || b < o.distinct) {
+            if (b == o.distinct || a < distinct && shots[a] < o.shots[b]) {
+                s[d] = shots[a];
+                c[d++] = counts[a++];
+            } else if (a == distinct || o.shots[b] < shots[a]) {
+                s[d] = o.shots[b];
+                c[d++] = o.counts[b++];
+            } else {
+                s[d] = shots[a];
+                c[d++] = counts[a++] + o.counts[b++];
+            }
+        }
+        shots = s;
+        counts = c;
+        distinct = d;
+        return this;
+    }
+
+    /** Кількість ігор, виграних рівно за k пострілів. */
+    public long gamesWonIn(int k) {
+        int i = Arrays.binarySearch(shots, 0, distinct, k);
+        return i >= 0 ? counts[i] : 0;
+    }
+
+    public double gamesPerSecond() { return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+    }
+    public double meanShotsToWin() { return games == 0 ? 0 : (double) totalWinnerShots / games;
+    }
+
+    /** Кількість пострілів, за яку виграно щонайменше частку q ігор. */
+    public int shotsPercentile(double q) {
+        long need = (long) Math.ceil(q * games);
+        long acc = 0;
+        for (int i = 0; i < distinct; i++) {
+            acc += counts[i];
+            if (acc >= need && acc > 0) return shots[i];
+        }
+        return cells;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("games: %d, %.1f s, %.0f games/sec%n", games, elapsedNanos / 1e9, gamesPerSecond()));
+        sb.append(String.format("wins: first %d, second %d%n", wins[0], wins[1]));
+        sb.append(String.format("shots to win: mean %.2f, p50 %d, p90 %d, p99 %d, max %d%n",
+                meanShotsToWin(), shotsPercentile(0.5), shotsPercentile(0.9), shotsPercentile(0.99), shotsPercentile(1.0)));
+        for (int i = 0; i < distinct; i++) sb.append(String.format("%4d %8d%n", shots[i], counts[i]));
+        return sb.toString();
+    }
+}
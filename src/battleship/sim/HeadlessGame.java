@@ -0,0 +1,134 @@
+package battleship.sim;
+
+import battleship.ai.TargetingStrategy;
+import battleship.core.Board;
+import battleship.core.Ship;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Гра без інтерфейсу і затримок за правилами BattleshipGame:
+ * після влучання гравець стріляє ще раз, навколо потопленого корабля клітини відкриваються.
+ */
+public final class HeadlessGame {
+    public static final int MISS = 0;
+    public static final int HIT = 1;
+    public static final int SUNK = 2;
+
+    private final int n;
+    private final int[] shipSizes;
+    private final TargetingStrategy first;
+    private final TargetingStrategy second;
+    private Board firstBoard, secondBoard;
+    private RandomGenerator boardRnd;
+    private PlacementPool pool;
+    private boolean recording;
+    private int[] shotLog = new int[128];
+    private int shotLen;
+
+    public HeadlessGame(int n, int[] shipSizes, TargetingStrategy first, TargetingStrategy second) {
+        this.n = n;
+        this.shipSizes = shipSizes;
+        this.first = first;
+        this.second = second;
+    }
+
+    /** Результат однієї гри. */
+    public static final class Result {
+        public final int winner;
+        public final int firstShots;
+        public final int secondShots;
+
+        public Result(int winner, int firstShots, int secondShots) {
+            this.winner = winner;
+            this.firstShots = firstShots;
+            this.secondShots = secondShots;
+        }
+
+        public int winnerShots() { return winner == 0 ? firstShots : secondShots;
+        }
+    }
+
+    public Result play(RandomGenerator rnd) {
+        // поля перевикористовуються між іграми з тим самим генератором
+        if (boardRnd != rnd) {
+            firstBoard = new Board(n, shipSizes, rnd);
+            secondBoard = new Board(n, shipSizes, rnd);
+            boardRnd = rnd;
+        }
+        if (pool != null) {
+            pool.loadInto(firstBoard);
+            pool.loadInto(secondBoard);
+        } else {
+            firstBoard.clear();
+            secondBoard.clear();
+            firstBoard.placeShipsRandomly(shipSizes);
+            secondBoard.placeShipsRandomly(shipSizes);
+        }
+        return play(firstBoard, secondBoard);
+    }
+
+    /** Брати розстановки з пулу замість розставляти їх у кожній грі (ігри стають невідтворюваними). */
+    public void usePool(PlacementPool pool) { this.pool = pool;
+    }
+
+    public Result play(Board firstBoard, Board secondBoard) {
+        this.firstBoard = firstBoard;
+        this.secondBoard = secondBoard;
+        Board[] targets = {secondBoard, firstBoard};
+        TargetingStrategy[] shooters = {first, second};
+        int[] shots = new int[2];
+        int turn = 0;
+        shotLen = 0;
+        first.newGame();
+        second.newGame();
+        while (true) {
+            Board target = targets[turn];
+            Point p = shooters[turn].nextMove(target);
+            shots[turn]++;
+            if (recording) {
+                if (shotLen == shotLog.length) shotLog = Arrays.copyOf(shotLog, shotLen * 2);
+                shotLog[shotLen++] = p.x * n + p.y;
+            }
+            int res = shoot(target, p.x, p.y);
+            if (res == MISS) {
+                turn = 1 - turn;
+            } else if (res == SUNK && target.allShipsSunk()) {
+                first.gameOver(shots[0], turn == 0);
+                second.gameOver(shots[1], turn == 1);
+                return new Result(turn, shots[0], shots[1]);
+            }
+        }
+    }
+
+    /**
+     * Один постріл за правилами гри: після потоплення клітини навколо відкриваються,
+     * повторний постріл - як промах, інакше гра може не закінчитись.
+     * Після MISS хід переходить до суперника.
+     */
+    public static int shoot(Board target, int r, int c) {
+        if (target.isShot(r, c) || !target.shoot(r, c)) return MISS;
+        Ship s = target.shipAt(r, c);
+        if (!s.isSunk()) return HIT;
+        target.markAround(s);
+        return SUNK;
+    }
+
+    /** Записувати постріли кожної гри (див. lastShots). */
+    public void setRecording(boolean recording) { this.recording = recording;
+    }
+
+    /** Постріли останньої гри (клітини r * n + c по черзі обох гравців); масив перевикористовується. */
+    public int[] lastShots() { return shotLog;
+    }
+    public int lastShotCount() { return shotLen;
+    }
+
+    /** Поле першого гравця в останній грі (по ньому стріляв другий). */
+    public Board firstBoard() { return firstBoard;
+    }
+    public Board secondBoard() { return secondBoard;
+    }
+}
@@ -0,0 +1,410 @@
+package battleship.sim;
+
+import battleship.ai.Strategies;
+import battleship.ai.TargetingStrategy;
+import battleship.core.BitGrid;
+import battleship.core.Board;
+import battleship.core.FleetPlacer;
+import battleship.core.GameConfig;
+import battleship.core.LayoutCodec;
+import battleship.core.SplitMixRandom;
+
+import java.awt.Point;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+/**
+ * Пошук розстановок, які стратегія розбиває найдовше. Генетичний алгоритм над
+ * допустимими розстановками (кораблі не торкаються, як у canPlace): схрещування бере
+ * кожен корабель з одного з батьків, мутація переставляє корабель поруч або будь-куди.
+ *
+ * Оцінка розстановки - середня кількість пострілів стратегії до потоплення всього флоту
+ * за games ігор. Ігри з номером g грають з seed SplitMixRandom.gameSeed(seed, g) для всіх
+ * розстановок, тож розстановки порівнюються на тих самих випадкових рішеннях стратегії.
+ * Оцінки рахуються паралельно у fork-join і кешуються за канонічним виглядом розстановки:
+ * перестановки однакових кораблів - одна розстановка. Симетричні розстановки рахуються
+ * окремо: стратегії не симетричні (нічия вирішується порядком клітин, парність на полі
+ * парного розміру змінюється при відображенні), тож оцінки дзеркальних копій різні.
+ */
+public final class PlacementOptimizer {
+    // ігри для перевірки найкращих - з іншим seed, щоб відбір не підлаштувався під випадковість
+    private static final long CONFIRM_STREAM = 1L << 40;
+    private static final int TOURNAMENT = 3;
+    private static final double CROSSOVER = 0.6;
+    // частка мутацій на місці (зсув до 2 клітин), решта - будь-куди
+    private static final double LOCAL_MOVE = 0.5;
+
+    private final int n;
+    private final int[] fleet;
+    private final LayoutCodec codec;
+    // розстановник для початкової популяції; лише з потоку run
+    private final FleetPlacer placer;
+    private final BitGrid empty;
+    private final Function<RandomGenerator, TargetingStrategy> strategy;
+    private final int games;
+    private final long seed;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Evaluator> evaluators = ThreadLocal.withInitial(Evaluator::new);
+    private final ConcurrentHashMap<Key, Double> fitness = new ConcurrentHashMap<>();
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private GenerationListener listener;
+
+    /** Розстановка (кодування LayoutCodec) і середня кількість пострілів стратегії по ній. */
+    public record Scored(long[] layout, double shots) {
+    }
+
+    /** Викликається після кожного покоління в потоці run. */
+    @FunctionalInterface
+    public interface GenerationListener {
+        void generation(int gen, Scored best, double meanShots);
+    }
+
+    // ключ кешу: канонічна розстановка
+    private record Key(long[] packed) {
+        @Override
+        public boolean equals(Object o) { return o instanceof Key k && Arrays.equals(packed, k.packed);
+        }
+
+        @Override
+        public int hashCode() { return Arrays.hashCode(packed);
+        }
+    }
+
+    public PlacementOptimizer(GameConfig config, Function<RandomGenerator, TargetingStrategy> strategy,
+                              int games, long seed, int threads) {
+        if (games <= 0) throw new IllegalArgumentException("Кількість ігор на оцінку має бути додатною: " + games);
+        this.n = config.n;
+        this.fleet = config.fleet;
+        this.codec = new LayoutCodec(n, fleet);
+        this.placer = new FleetPlacer(n, fleet);
+        this.empty = new BitGrid(n);
+        this.strategy = strategy;
+        this.games = games;
+        this.seed = seed;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    public LayoutCodec codec() { return codec;
+    }
+    public long evaluated() { return evaluated.sum();
+    }
+    public long cacheHits() { return cacheHits.sum();
+    }
+    public int cacheSize() { return fitness.size();
+    }
+
+    public void setListener(GenerationListener listener) { this.listener = listener;
+    }
+
+    public void shutdown() { pool.shutdown();
+    }
+
+    /**
+     * Еволюція population розстановок за generations поколінь; elite найкращих переходять
+     * у наступне покоління без змін. Повертає top найкращих різних розстановок з усіх
+     * оцінених, переоцінених на confirmGames нових іграх, за спаданням пострілів.
+     */
+    public List<Scored> run(int population, int generations, int elite, int top, int confirmGames, RandomGenerator rnd) {
+        if (population < 2 || elite < 0 || elite >= population)
+            throw new IllegalArgumentException("Потрібно population >= 2 і 0 <= elite < population: " + population + ", " + elite);
+        List<long[]> pop = new ArrayList<>(population);
+        for (int i = 0; i < population; i++) pop.add(randomLayout(rnd));
+        Scored[] scored = evaluate(pop);
+
+        for (int gen = 1; gen <= generations; gen++) {
+            Arrays.sort(scored, Comparator.comparingDouble(Scored::shots).reversed());
+            if (listener != null) listener.generation(gen - 1, scored[0], mean(scored));
+            List<long[]> next = new ArrayList<>(population);
+            for (int i = 0; i < elite; i++) next.add(scored[i].layout());
+            while (next.size() < population) {
+                long[] a = select(scored, rnd).layout();
+                long[] child = null;
+                if (rnd.nextDouble() < CROSSOVER) child = crossover(a, select(scored, rnd).layout(), rnd);
+                if (child == null || rnd.nextBoolean()) child = mutate(child != null ? child : a, rnd);
+                next.add(child);
+            }
+            scored = evaluate(next);
+        }
+        Arrays.sort(scored, Comparator.comparingDouble(Scored::shots).reversed());
+        if (listener != null) listener.generation(generations, scored[0], mean(scored));
+        return confirm(top, confirmGames);
+    }
+
+    /** Рівномірно випадкова допустима розстановка, як у placeShipsRandomly. */
+    public long[] randomLayout(RandomGenerator rnd) {
+        placer.reset(empty);
+        return codec.encode(placer.place(rnd));
+    }
+
+    /** Оцінки розстановок; нові рахуються паралельно, решта береться з кешу. */
+    public Scored[] evaluate(List<long[]> layouts) {
+        Key[] keys = new Key[layouts.size()];
+        List<Key> missing = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Key(canonical(layouts.get(i)));
+            if (fitness.containsKey(keys[i])) cacheHits.increment();
+            else if (!missing.contains(keys[i])) missing.add(keys[i]);
+        }
+        double[] res = new double[missing.size()];
+        pool.invoke(new Evaluate(missing, res, 0, res.length, seed, games));
+        for (int i = 0; i < res.length; i++) fitness.put(missing.get(i), res[i]);
+        evaluated.add(res.length);
+
+        Scored[] out = new Scored[keys.length];
+        for (int i = 0; i < keys.length; i++) out[i] = new Scored(layouts.get(i), fitness.get(keys[i]));
+        return out;
+    }
+
+    // найкращі з кешу, переоцінені на незалежних іграх
+    private List<Scored> confirm(int top, int confirmGames) {
+        List<Map.Entry<Key, Double>> all = new ArrayList<>(fitness.entrySet());
+        all.sort(Map.Entry.<Key, Double>comparingByValue().reversed());
+        List<Key> best = new ArrayList<>();
+        for (int i = 0; i < Math.min(top, all.size()); i++) best.add(all.get(i).getKey());
+        double[] res = new double[best.size()];
+        pool.invoke(new Evaluate(best, res, 0, res.length, SplitMixRandom.gameSeed(seed, CONFIRM_STREAM), confirmGames));
+        List<Scored> ranked = new ArrayList<>();
+        for (int i = 0; i < res.length; i++) ranked.add(new Scored(best.get(i).packed(), res[i]));
+        ranked.sort(Comparator.comparingDouble(Scored::shots).reversed());
+        return ranked;
+    }
+
+    /** Середня кількість пострілів стратегії по розстановці за games ігор з головним seed gameSeed. */
+    public double shots(long[] layout, long gameSeed, int games) { return evaluators.get().shots(layout, gameSeed, games);
+    }
+
+    private final class Evaluate extends RecursiveAction {
+        final List<Key> keys;
+        final double[] res;
+        final int from, to, gamesEach;
+        final long gameSeed;
+
+        Evaluate(List<Key> keys, double[] res, int from, int to, long gameSeed, int gamesEach) {
+            this.keys = keys;
+            this.res = res;
+            this.from = from;
+            this.to = to;
+            this.gameSeed = gameSeed;
+            this.gamesEach = gamesEach;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) res[from] = shots(keys.get(from).packed(), gameSeed, gamesEach);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Evaluate(keys, res, from, mid, gameSeed, gamesEach),
+                    new Evaluate(keys, res, mid, to, gameSeed, gamesEach));
+        }
+    }
+
+    // стратегія і поле одного потоку fork-join
+    private final class Evaluator {
+        final SplitMixRandom rnd = new SplitMixRandom(seed);
+        final TargetingStrategy shooter = strategy.apply(rnd);
+        final Board board = new Board(n, fleet, rnd);
+
+        double shots(long[] layout, long gameSeed, int games) {
+            long total = 0;
+            for (int g = 0; g < games; g++) {
+                rnd.reseed(SplitMixRandom.gameSeed(gameSeed, g));
+                board.loadLayout(codec, layout);
+                shooter.newGame();
+                int shots = 0;
+                while (!board.allShipsSunk()) {
+                    Point p = shooter.nextMove(board);
+                    shots++;
+                    HeadlessGame.shoot(board, p.x, p.y);
+                }
+                shooter.gameOver(shots, true);
+                total += shots;
+            }
+            return (double) total / games;
+        }
+    }
+
+    private static double mean(Scored[] scored) {
+        double s = 0;
+        for (Scored x : scored) s += x.shots();
+        return s / scored.length;
+    }
+
+    private static Scored select(Scored[] scored, RandomGenerator rnd) {
+        Scored best = scored[rnd.nextInt(scored.length)];
+        for (int k = 1; k < TOURNAMENT; k++) {
+            Scored c = scored[rnd.nextInt(scored.length)];
+            if (c.shots() > best.shots()) best = c;
+        }
+        return best;
+    }
+
+    /**
+     * Кожен корабель - з a або b навпіл; спершу ставляться взяті з a (вони сумісні між собою),
+     * потім з b, а ті, що не стають, - у випадкове допустиме місце. null, якщо місця немає.
+     */
+    long[] crossover(long[] a, long[] b, RandomGenerator rnd) {
+        int[] sa = codec.decode(a), sb = codec.decode(b), child = new int[fleet.length];
+        boolean[] fromA = new boolean[fleet.length];
+        for (int i = 0; i < fleet.length; i++) fromA[i] = rnd.nextBoolean();
+        Board board = new Board(n, fleet);
+        for (int i = 0; i < fleet.length; i++) if (fromA[i]) child[i] = put(board, i, sa[i]);
+        for (int i = 0; i < fleet.length; i++) {
+            if (fromA[i]) continue;
+            if (fits(board, i, sb[i])) child[i] = put(board, i, sb[i]);
+            else {
+                int slot = randomSlot(board, i, -1, rnd);
+                if (slot < 0) return null;
+                child[i] = put(board, i, slot);
+            }
+        }
+        return codec.encode(child);
+    }
+
+    /** Один корабель (іноді два) переходить у нове допустиме місце - поруч або будь-куди. */
+    long[] mutate(long[] layout, RandomGenerator rnd) {
+        int[] slots = codec.decode(layout);
+        int moves = rnd.nextInt(3) == 0 ? 2 : 1;
+        for (int m = 0; m < moves; m++) {
+            int ship = rnd.nextInt(fleet.length);
+            Board board = new Board(n, fleet);
+            for (int i = 0; i < fleet.length; i++) if (i != ship) put(board, i, slots[i]);
+            int slot = randomSlot(board, ship, rnd.nextDouble() < LOCAL_MOVE ? slots[ship] : -1, rnd);
+            if (slot >= 0) slots[ship] = slot;
+        }
+        return codec.encode(slots);
+    }
+
+    // випадкове допустиме положення корабля ship; near >= 0 - лише в межах 2 клітин від near
+    private int randomSlot(Board board, int ship, int near, RandomGenerator rnd) {
+        int nr = near >= 0 ? FleetPlacer.slotRow(near, n) : 0, nc = near >= 0 ? FleetPlacer.slotCol(near, n) : 0;
+        int count = 0, pick = -1;
+        for (int slot = 0; slot < 2 * n * n; slot++) {
+            if (near >= 0 && (Math.abs(FleetPlacer.slotRow(slot, n) - nr) > 2 || Math.abs(FleetPlacer.slotCol(slot, n) - nc) > 2))
+                continue;
+            if (slot == near || !fits(board, ship, slot)) continue;
+            // вибір навмання з потоку кандидатів
+            if (rnd.nextInt(++count) == 0) pick = slot;
+        }
+        return pick;
+    }
+
+    private boolean fits(Board board, int ship, int slot) {
+        return board.canPlace(FleetPlacer.slotRow(slot, n), FleetPlacer.slotCol(slot, n), fleet[ship], FleetPlacer.slotHoriz(slot));
+    }
+
+    private int put(Board board, int ship, int slot) {
+        board.placeShip(FleetPlacer.slotRow(slot, n), FleetPlacer.slotCol(slot, n), fleet[ship], FleetPlacer.slotHoriz(slot));
+        return slot;
+    }
+
+    /**
+     * Канонічний вигляд: однакові кораблі взаємозамінні, їхні положення - за зростанням;
+     * однопалубний корабель - завжди горизонтальний, як у LayoutCodec.
+     */
+    long[] canonical(long[] layout) {
+        int[] slots = codec.decode(layout);
+        for (int i = 0; i < fleet.length; i++) if (fleet[i] == 1) slots[i] &= ~1;
+        for (int i = 0; i < fleet.length; i++) {
+            for (int j = i + 1; j < fleet.length; j++) {
+                if (fleet[j] == fleet[i] && slots[j] < slots[i]) {
+                    int t = slots[i];
+                    slots[i] = slots[j];
+                    slots[j] = t;
+                }
+            }
+        }
+        return codec.encode(slots);
+    }
+
+    /** Бібліотека розстановок: рядок на розстановку - місце, середні постріли, положення кораблів. */
+    public static void writeLibrary(Path file, LayoutCodec codec, String header, List<Scored> ranked) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("# " + header);
+            w.newLine();
+            w.write("# rank shots slots (FleetPlacer: (r * n + c) * 2 + vertical, fleet order " + Arrays.toString(codec.getFleet()) + ")");
+            w.newLine();
+            for (int i = 0; i < ranked.size(); i++) {
+                Scored s = ranked.get(i);
+                StringBuilder sb = new StringBuilder();
+                for (int slot : codec.decode(s.layout())) sb.append(sb.isEmpty() ? "" : ",").append(slot);
+                w.write(String.format("%d %.3f %s", i + 1, s.shots(), sb));
+                w.newLine();
+            }
+        }
+    }
+
+    /** Розстановки з бібліотеки в порядку місць; для завантаження - Board.loadLayout(codec, ...). */
+    public static List<long[]> readLibrary(Path file, LayoutCodec codec) throws IOException {
+        List<long[]> res = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split("\\s+");
+            if (parts.length != 3) throw new IOException("Неправильний рядок бібліотеки: " + line);
+            int[] slots = Arrays.stream(parts[2].split(",")).mapToInt(Integer::parseInt).toArray();
+            if (slots.length != codec.getFleet().length)
+                throw new IOException("Розстановка для іншого флоту: " + line);
+            res.add(codec.encode(slots));
+        }
+        return res;
+    }
+
+    /**
+     * Аргументи: [поколінь] [розмір популяції] [ігор на оцінку] [потоків, 0 - всі ядра] [seed]
+     * [стратегія] [розмір поля] [флот] [файл бібліотеки] [скільки розстановок зберегти].
+     */
+    public static void main(String[] args) throws IOException {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int population = args.length > 1 ? Integer.parseInt(args[1]) : 48;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        if (threads <= 0) threads = Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        String name = args.length > 5 ? args[5] : "optimized";
+        GameConfig config = GameConfig.of(args.length > 6 ? Integer.parseInt(args[6]) : 10,
+                args.length > 7 ? args[7] : "standard");
+        Path out = Path.of(args.length > 8 ? args[8] : "hard-layouts.txt");
+        int top = args.length > 9 ? Integer.parseInt(args[9]) : 20;
+
+        PlacementOptimizer opt = new PlacementOptimizer(config, Strategies.factory(name), games, seed, threads);
+        opt.setListener((gen, best, mean) -> System.out.printf("gen %d: best %.2f, mean %.2f, evaluated %d, cache hits %d%n",
+                gen, best.shots(), mean, opt.evaluated(), opt.cacheHits()));
+        long start = System.nanoTime();
+        SplitMixRandom rnd = new SplitMixRandom(seed);
+        List<Scored> ranked;
+        try {
+            ranked = opt.run(population, generations, Math.max(1, population / 8), top, games * 5, rnd);
+            // випадкові розстановки на тих самих іграх перевірки - база для порівняння
+            double base = 0;
+            int baseLayouts = 50;
+            for (int i = 0; i < baseLayouts; i++)
+                base += opt.shots(opt.randomLayout(rnd), SplitMixRandom.gameSeed(seed, CONFIRM_STREAM), games);
+            System.out.printf("random layouts: %.2f shots (%d layouts x %d games)%n", base / baseLayouts, baseLayouts, games);
+        } finally {
+            opt.shutdown();
+        }
+        System.out.printf("%.1f s, %d layouts evaluated, %d cache hits%n",
+                (System.nanoTime() - start) / 1e9, opt.evaluated(), opt.cacheHits());
+        for (int i = 0; i < Math.min(5, ranked.size()); i++)
+            System.out.printf("  #%d %.2f shots%n", i + 1, ranked.get(i).shots());
+        writeLibrary(out, opt.codec(), config + " vs " + name + ", " + games * 5 + " games per layout, seed " + seed, ranked);
+        System.out.println("library: " + out.toAbsolutePath());
+    }
+}
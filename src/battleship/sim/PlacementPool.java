@@ -0,0 +1,146 @@
+package battleship.sim;
+
+import battleship.core.BitGrid;
+import battleship.core.Board;
+import battleship.core.FleetPlacer;
+import battleship.core.LayoutCodec;
+import battleship.core.SplitMixRandom;
+
+import java.util.random.RandomGenerator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Обмежений пул готових розстановок для одного розміру поля і флоту.
+ * Фоновий потік доповнює пул, коли в ньому лишається менше lowWater розстановок.
+ * Якщо пул порожній, розстановка генерується одразу в потоці, що її запросив (промах).
+ * З кожної згенерованої розстановки можна додати ще до 7 симетричних варіантів.
+ */
+public final class PlacementPool implements AutoCloseable {
+    private final LayoutCodec codec;
+    private final int n;
+    private final int[] fleet;
+    private final boolean symmetric;
+    private final ArrayBlockingQueue<long[]> pool;
+    private final int lowWater;
+    private final Thread filler;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition lowCondition = lock.newCondition();
+    private final ThreadLocal<FleetPlacer> inlinePlacer;
+    private final BitGrid empty;
+    private volatile boolean running = true;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder variants = new LongAdder();
+
+    public PlacementPool(int n, int[] fleet, int capacity, boolean symmetric, long seed) {
+        this.n = n;
+        this.fleet = fleet;
+        this.symmetric = symmetric;
+        codec = new LayoutCodec(n, fleet);
+        empty = new BitGrid(n);
+        pool = new ArrayBlockingQueue<>(capacity);
+        lowWater = Math.max(1, capacity / 4);
+        inlinePlacer = ThreadLocal.withInitial(() -> new FleetPlacer(n, fleet));
+        filler = new Thread(() -> fill(new SplitMixRandom(seed)), "placement-pool-" + n);
+        filler.setDaemon(true);
+        filler.start();
+    }
+
+    public LayoutCodec codec() { return codec;
+    }
+
+    /** Наступна розстановка; не блокується. */
+    public long[] take() {
+        long[] layout = pool.poll();
+        if (layout != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            layout = generate(inlinePlacer.get(), ThreadLocalRandom.current());
+        }
+        if (pool.size() < lowWater) wakeFiller();
+        return layout;
+    }
+
+    /** Ставить на поле наступну розстановку з пулу. */
+    public void loadInto(Board board) { board.loadLayout(codec, take());
+    }
+
+    private long[] generate(FleetPlacer placer, RandomGenerator rnd) {
+        placer.reset(empty);
+        return codec.encode(placer.place(rnd));
+    }
+
+    private void wakeFiller() {
+        lock.lock();
+        try {
+            lowCondition.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fill(RandomGenerator rnd) {
+        FleetPlacer placer = new FleetPlacer(n, fleet);
+        while (running) {
+            refills.increment();
+            while (running && pool.remainingCapacity() > 0) {
+                long[] layout = generate(placer, rnd);
+                generated.increment();
+                if (!symmetric) {
+                    pool.offer(layout);
+                    continue;
+                }
+                for (long[] v : codec.variants(layout)) {
+                    if (!pool.offer(v)) break;
+                    if (v != layout) variants.increment();
+                }
+            }
+            lock.lock();
+            try {
+                while (running && pool.size() >= lowWater) lowCondition.await();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public long hits() { return hits.sum();
+    }
+    public long misses() { return misses.sum();
+    }
+    public long refills() { return refills.sum();
+    }
+    public long generated() { return generated.sum();
+    }
+    public long variants() { return variants.sum();
+    }
+    public int available() { return pool.size();
+    }
+
+    public double hitRatio() {
+        long h = hits(), total = h + misses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public String metrics() {
+        return String.format("pool %d/%d, hits %d, misses %d (%.1f%% hit), refills %d, generated %d, variants %d",
+                available(), available() + pool.remainingCapacity(), hits(), misses(), hitRatio() * 100,
+                refills(), generated(), variants());
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        filler.interrupt();
+    }
+}
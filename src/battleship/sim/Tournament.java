@@ -0,0 +1,217 @@
+package battleship.sim;
+
+import battleship.ai.Strategies;
+import battleship.ai.TargetingStrategy;
+import battleship.core.BitGrid;
+import battleship.core.Board;
+import battleship.core.FleetPlacer;
+import battleship.core.GameConfig;
+import battleship.core.LayoutCodec;
+import battleship.core.SplitMixRandom;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.random.RandomGenerator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Турнір стратегії A проти B парними іграми (див. TournamentStats) до статистично
+ * значущого результату. Пари діляться на частини по shardPairs; частини грають потоки
+ * пулу, а результати зливаються в порядку номерів частин, тож при тому ж seed зупинка
+ * і підсумок не залежать від кількості потоків.
+ *
+ * Після кожної частини перевіряється, чи довірчий інтервал частки перемог A не містить
+ * 0.5. Перевірок може бути до maxPairs / shardPairs, тому кожна робиться з рівнем
+ * alpha / (кількість перевірок) (поправка Бонферроні): імовірність помилково зупинитись
+ * за весь турнір не більша за alpha.
+ */
+public final class Tournament {
+    private final GameConfig config;
+    private final Function<RandomGenerator, TargetingStrategy> a;
+    private final Function<RandomGenerator, TargetingStrategy> b;
+    private final int threads;
+    private final int shardPairs;
+    private final double alpha;
+    private PrintStream progress;
+
+    /** Підсумок турніру. */
+    public static final class Outcome {
+        public final TournamentStats stats;
+        // рівень однієї перевірки і чи зупинився турнір через значущість
+        public final double lookAlpha;
+        public final boolean significant;
+        public final long elapsedNanos;
+        // процесорний час кожного потоку, нс
+        public final long[] workerCpuNanos;
+
+        Outcome(TournamentStats stats, double lookAlpha, boolean significant, long elapsedNanos, long[] workerCpuNanos) {
+            this.stats = stats;
+            this.lookAlpha = lookAlpha;
+            this.significant = significant;
+            this.elapsedNanos = elapsedNanos;
+            this.workerCpuNanos = workerCpuNanos;
+        }
+
+        public double gamesPerSecond() { return elapsedNanos == 0 ? 0 : stats.games() * 1e9 / elapsedNanos;
+        }
+
+        public String report(String nameA, String nameB) {
+            StringBuilder sb = new StringBuilder();
+            double[] ci = stats.confidenceInterval(lookAlpha);
+            String verdict = !significant ? "no significant difference"
+                    : (stats.scoreA() > 0.5 ? nameA : nameB) + " is stronger";
+            sb.append(String.format("%s vs %s: %s after %d pairs%n", nameA, nameB, verdict, stats.pairs));
+            sb.append(String.format("score %s %.4f, CI [%.4f, %.4f] at alpha %.2g per look, p %.3g%n",
+                    nameA, stats.scoreA(), ci[0], ci[1], lookAlpha, stats.pValue()));
+            sb.append(String.format("pairs: %s swept %d, split %d, %s swept %d%n",
+                    nameA, stats.sweepsA, stats.splits, nameB, stats.sweepsB));
+            sb.append(String.format("%s wins: first %d, second %d; mean shots per game %s %.2f, %s %.2f%n",
+                    nameA, stats.winsAFirst, stats.winsASecond,
+                    nameA, (double) stats.shotsA / Math.max(1, stats.games()),
+                    nameB, (double) stats.shotsB / Math.max(1, stats.games())));
+            sb.append(String.format("games: %d, wall %.2f s, %.0f games/sec%n",
+                    stats.games(), elapsedNanos / 1e9, gamesPerSecond()));
+            for (int w = 0; w < workerCpuNanos.length; w++) {
+                sb.append(String.format("worker %d: cpu %.2f s, %.0f%% of wall%n",
+                        w, workerCpuNanos[w] / 1e9, elapsedNanos == 0 ? 0 : 100.0 * workerCpuNanos[w] / elapsedNanos));
+            }
+            return sb.toString();
+        }
+    }
+
+    public Tournament(GameConfig config, Function<RandomGenerator, TargetingStrategy> a, Function<RandomGenerator, TargetingStrategy> b,
+                      int threads, int shardPairs, double alpha) {
+        if (threads < 1 || shardPairs < 2) throw new IllegalArgumentException("Потрібні хоча б 1 потік і 2 пари в частині");
+        if (!(alpha > 0 && alpha < 1)) throw new IllegalArgumentException("Рівень значущості має бути між 0 і 1: " + alpha);
+        this.config = config;
+        this.a = a;
+        this.b = b;
+        this.threads = threads;
+        this.shardPairs = shardPairs;
+        this.alpha = alpha;
+    }
+
+    /** Куди писати рядок після кожної перевірки (null - нікуди). */
+    public void setProgress(PrintStream progress) { this.progress = progress;
+    }
+
+    public Outcome run(long maxPairs, long seed) throws InterruptedException {
+        if (maxPairs < 1) throw new IllegalArgumentException("Потрібна хоча б одна пара ігор: " + maxPairs);
+        long shards = Math.max(1, (maxPairs + shardPairs - 1) / shardPairs);
+        double lookAlpha = alpha / shards;
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        boolean cpuTime = mx.isCurrentThreadCpuTimeSupported();
+        long[] cpu = new long[threads];
+        AtomicInteger names = new AtomicInteger(), ids = new AtomicInteger();
+        ThreadLocal<Integer> workerId = ThreadLocal.withInitial(ids::getAndIncrement);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tournament-" + names.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        TournamentStats total = new TournamentStats();
+        boolean significant = false;
+        // у польоті - не більше двох частин на потік, щоб рано зупинитись без зайвих ігор
+        ArrayDeque<Future<Shard>> inFlight = new ArrayDeque<>();
+        long next = 0;
+        try {
+            while (next < shards || !inFlight.isEmpty()) {
+                while (next < shards && inFlight.size() < 2 * threads) {
+                    long index = next++;
+                    long pairs = Math.min(shardPairs, maxPairs - index * shardPairs);
+                    inFlight.add(pool.submit(() -> {
+                        long t0 = cpuTime ? mx.getCurrentThreadCpuTime() : 0;
+                        Shard s = play(index, pairs, seed);
+                        s.worker = workerId.get();
+                        s.cpuNanos = cpuTime ? mx.getCurrentThreadCpuTime() - t0 : 0;
+                        return s;
+                    }));
+                }
+                Shard s;
+                try {
+                    s = inFlight.poll().get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Частина турніру впала", e.getCause());
+                }
+                total.merge(s.stats);
+                cpu[s.worker] += s.cpuNanos;
+                double[] ci = total.confidenceInterval(lookAlpha);
+                significant = ci[0] > 0.5 || ci[1] < 0.5;
+                if (progress != null) {
+                    double secs = (System.nanoTime() - start) / 1e9;
+                    progress.printf("pairs %d: score %.4f, CI [%.4f, %.4f], %.0f games/sec%n",
+                            total.pairs, total.scoreA(), ci[0], ci[1], total.games() / secs);
+                }
+                if (significant) break;
+            }
+        } finally {
+            for (Future<Shard> f : inFlight) f.cancel(true);
+            pool.shutdownNow();
+        }
+        return new Outcome(total, lookAlpha, significant, System.nanoTime() - start, cpu);
+    }
+
+    private static final class Shard {
+        final TournamentStats stats = new TournamentStats();
+        int worker;
+        long cpuNanos;
+    }
+
+    // частина index: свій генератор, стратегії і поля; пара грається з власним seed,
+    // тож результат залежить лише від seed і номера пари
+    private Shard play(long index, long pairs, long seed) {
+        Shard shard = new Shard();
+        SplitMixRandom rnd = new SplitMixRandom(seed);
+        int n = config.n;
+        TargetingStrategy sa = a.apply(rnd), sb = b.apply(rnd);
+        HeadlessGame aFirst = new HeadlessGame(n, config.fleet, sa, sb);
+        HeadlessGame bFirst = new HeadlessGame(n, config.fleet, sb, sa);
+        LayoutCodec codec = new LayoutCodec(n, config.fleet);
+        FleetPlacer placer = new FleetPlacer(n, config.fleet);
+        BitGrid empty = new BitGrid(n);
+        Board board1 = new Board(n, config.fleet, rnd), board2 = new Board(n, config.fleet, rnd);
+        for (long p = 0; p < pairs; p++) {
+            rnd.reseed(SplitMixRandom.gameSeed(seed, index * shardPairs + p));
+            placer.reset(empty);
+            long[] layout1 = codec.encode(placer.place(rnd));
+            placer.reset(empty);
+            long[] layout2 = codec.encode(placer.place(rnd));
+            // у першій грі A ходить першим і стріляє по полю 2, B - по полю 1;
+            // у другій першим ходить B і стріляє по полю 2, тож кожна стратегія
+            // стріляла по обох полях і з обох місць
+            board1.loadLayout(codec, layout1);
+            board2.loadLayout(codec, layout2);
+            HeadlessGame.Result r1 = aFirst.play(board1, board2);
+            board1.loadLayout(codec, layout1);
+            board2.loadLayout(codec, layout2);
+            HeadlessGame.Result r2 = bFirst.play(board1, board2);
+            shard.stats.addPair(r1, r2);
+        }
+        return shard;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long maxPairs = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        if (threads <= 0) threads = Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        String nameA = args.length > 3 ? args[3] : "endgame";
+        String nameB = args.length > 4 ? args[4] : "optimized";
+        int n = args.length > 5 ? Integer.parseInt(args[5]) : 10;
+        GameConfig config = GameConfig.of(n, args.length > 6 ? args[6] : "standard");
+        double alpha = args.length > 7 ? Double.parseDouble(args[7]) : 0.05;
+        int shardPairs = args.length > 8 ? Integer.parseInt(args[8]) : 500;
+        Tournament t = new Tournament(config, Strategies.factory(nameA), Strategies.factory(nameB), threads, shardPairs, alpha);
+        t.setProgress(System.out);
+        System.out.printf("%s vs %s on %s, up to %d pairs, seed %d%n", nameA, nameB, config, maxPairs, seed);
+        System.out.print(t.run(maxPairs, seed).report(nameA, nameB));
+    }
+}
@@ -0,0 +1,95 @@
+package battleship.sim;
+
+/**
+ * Підсумки парних ігор A проти B. Пара - дві гри на тих самих двох розстановках,
+ * у другій стратегії міняються місцями і полями, по яких стріляють, тож удача
+ * розстановки і першого ходу скорочується: однакові стратегії завжди ділять пару.
+ * Очки пари для A: 1, 0.5 або 0.
+ */
+public final class TournamentStats {
+    public long pairs;
+    // пари, в яких A виграв обидві гри, одну або жодної
+    public long sweepsA, splits, sweepsB;
+    // перемоги A з першого і з другого місця
+    public long winsAFirst, winsASecond;
+    public long shotsA, shotsB;
+
+    public void addPair(HeadlessGame.Result aFirst, HeadlessGame.Result bFirst) {
+        pairs++;
+        int won = 0;
+        if (aFirst.winner == 0) {
+            won++;
+            winsAFirst++;
+        }
+        if (bFirst.winner == 1) {
+            won++;
+            winsASecond++;
+        }
+        if (won == 2) sweepsA++;
+        else if (won == 1) splits++;
+        else sweepsB++;
+        shotsA += aFirst.firstShots + bFirst.secondShots;
+        shotsB += aFirst.secondShots + bFirst.firstShots;
+    }
+
+    public TournamentStats merge(TournamentStats o) {
+        pairs += o.pairs;
+        sweepsA += o.sweepsA;
+        splits += o.splits;
+        sweepsB += o.sweepsB;
+        winsAFirst += o.winsAFirst;
+        winsASecond += o.winsASecond;
+        shotsA += o.shotsA;
+        shotsB += o.shotsB;
+        return this;
+    }
+
+    public long games() { return 2 * pairs;
+    }
+
+    /** Частка ігор, виграних A (середні очки пари). */
+    public double scoreA() { return pairs == 0 ? 0.5 : (sweepsA + 0.5 * splits) / pairs;
+    }
+
+    /** Стандартна похибка scoreA за вибірковою дисперсією очок пар. */
+    public double standardError() {
+        if (pairs < 2) return Double.POSITIVE_INFINITY;
+        double mean = scoreA();
+        double var = (sweepsA * (1 - mean) * (1 - mean) + splits * (0.5 - mean) * (0.5 - mean)
+                + sweepsB * mean * mean) / (pairs - 1);
+        return Math.sqrt(var / pairs);
+    }
+
+    /** Двобічний довірчий інтервал scoreA з рівнем значущості alpha: {нижня межа, верхня}. */
+    public double[] confidenceInterval(double alpha) {
+        double half = normalQuantile(1 - alpha / 2) * standardError();
+        return new double[]{scoreA() - half, scoreA() + half};
+    }
+
+    /** Двобічне p-значення гіпотези, що стратегії рівні (scoreA = 0.5). */
+    public double pValue() {
+        double se = standardError();
+        if (se == 0) return scoreA() == 0.5 ? 1 : 0;
+        return 2 * (1 - normalCdf(Math.abs(scoreA() - 0.5) / se));
+    }
+
+    // Абрамовіц і Стіган 7.1.26, похибка до 1.5e-7
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1 / (1 + 0.3275911 * x);
+        double erf = 1 - ((((1.061405429 * t - 1.453152027) * t + 1.421413741) * t - 0.284496736) * t + 0.254829592)
+                * t * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1 + erf) : 0.5 * (1 - erf);
+    }
+
+    // обернена до normalCdf бісекцією: викликається раз на перевірку
+    static double normalQuantile(double p) {
+        double lo = -40, hi = 40;
+        for (int k = 0; k < 100; k++) {
+            double mid = (lo + hi) / 2;
+            if (normalCdf(mid) < p) lo = mid;
+            else hi = mid;
+        }
+        return (lo + hi) / 2;
+    }
+}
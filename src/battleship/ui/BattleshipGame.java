@@ -1,10 +1,17 @@
 package battleship.ui;
 
+import battleship.ai.AsyncMoveExecutor;
+import battleship.ai.EndgameStrategy;
+import battleship.ai.SamplingStrategy;
 import battleship.core.Board;
+import battleship.core.CellChanges;
+import battleship.core.EndgameSolver;
+import battleship.core.GameConfig;
 import battleship.core.Ship;
+import battleship.core.SplitMixRandom;
+import battleship.metrics.Histogram;
 
 import javax.swing.*;
-import javax.swing.border.LineBorder;
 import java.awt.Component;
 import java.awt.BorderLayout;
 import java.awt.Color;
@@ -12,19 +19,21 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.Point;
-import java.util.Random;
 
 public class BattleshipGame extends JFrame {
-    private static final int SIZE = 10;
-    private static final int[] SHIP_SIZES = {4, 3, 3, 2, 2, 2, 1, 1, 1, 1};
+    // на більшому полі клітина стає меншою за 2 пікселі
+    public static final int MAX_SIZE = 256;
+
+    private final int size;
+    private final int[] shipSizes;
 
     private JPanel mainPanel;
     private JPanel setupPanel;
     private JPanel boardsPanel;
     private JPanel playerBoardPanel;
     private JPanel enemyBoardPanel;
-    private CellButton[][] playerButtons = new CellButton[SIZE][SIZE];
-    private CellButton[][] enemyButtons = new CellButton[SIZE][SIZE];
+    private final BoardComponent playerView;
+    private final BoardComponent enemyView;
 
     private JLabel centerMessage = new JLabel(" ", SwingConstants.CENTER);
     private JLabel statusLabel = new JLabel("Розстановка: оберіть режим", SwingConstants.CENTER);
@@ -34,18 +43,49 @@ public class BattleshipGame extends JFrame {
     private JButton startButton = new JButton("Старт");
     private JButton restartButton = new JButton("Перезапуск");
 
-    private Board playerBoard = new Board(SIZE, SHIP_SIZES);
-    private Board enemyBoard = new Board(SIZE, SHIP_SIZES);
+    private final Board playerBoard;
+    private final Board enemyBoard;
+    private final CellChanges playerChanges;
+    private final CellChanges enemyChanges;
     private boolean placingShipsMode = false;
     private boolean shipsPlaced = false;
     private int currentShipIndex = 0;
     private boolean horizontalPlacement = true;
     private boolean playerTurn = true;
 
-    private Random rnd = new Random();
+    // пауза перед ходом ворога за замовчуванням, мс
+    public static final long DEFAULT_AI_DELAY = 800;
+
+    // головний генератор гри; поля і AI отримують від нього окремі, бо AI рахує в іншому потоці
+    private final SplitMixRandom rnd = new SplitMixRandom();
+    private final AsyncMoveExecutor enemyAI =
+            new AsyncMoveExecutor(new EndgameStrategy(new SamplingStrategy(rnd.split()), new EndgameSolver()),
+                    SwingUtilities::invokeLater, DEFAULT_AI_DELAY);
+    private JLabel edtLabel = new JLabel(" ", SwingConstants.CENTER);
 
     public BattleshipGame() {
+        this(GameConfig.standard());
+    }
+
+    public BattleshipGame(GameConfig config) {
+        this(config, DEFAULT_AI_DELAY);
+    }
+
+    public BattleshipGame(GameConfig config, long aiDelayMillis) {
         super("Морський бій");
+        enemyAI.setDelayMillis(aiDelayMillis);
+        if (config.n > MAX_SIZE)
+            throw new IllegalArgumentException("Поле " + config.n + "x" + config.n + " завелике для інтерфейсу, максимум " + MAX_SIZE);
+        size = config.n;
+        shipSizes = config.fleet;
+        playerBoard = new Board(size, shipSizes, rnd.split());
+        enemyBoard = new Board(size, shipSizes, rnd.split());
+        playerView = new BoardComponent(playerBoard, true);
+        enemyView = new BoardComponent(enemyBoard, false);
+        playerView.setCellClickHandler(this::onPlayerBoardClick);
+        enemyView.setCellClickHandler(this::onEnemyBoardClick);
+        playerChanges = playerBoard.trackChanges();
+        enemyChanges = enemyBoard.trackChanges();
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setSize(1100, 700);
         setLocationRelativeTo(null);
@@ -64,8 +104,8 @@ public class BattleshipGame extends JFrame {
         boardsPanel = new JPanel(new GridLayout(1, 2, 20, 0));
         boardsPanel.setOpaque(false);
 
-        playerBoardPanel = createBoardPanel(playerButtons, "Ваше поле", true);
-        enemyBoardPanel = createBoardPanel(enemyButtons, "Поле ворога", false);
+        playerBoardPanel = createBoardPanel(playerView, "Ваше поле");
+        enemyBoardPanel = createBoardPanel(enemyView, "Поле ворога");
         boardsPanel.add(playerBoardPanel);
 
         mainPanel.add(boardsPanel, BorderLayout.CENTER);
@@ -110,6 +150,10 @@ public class BattleshipGame extends JFrame {
         setupPanel.add(Box.createRigidArea(new Dimension(0, 12)));
         setupPanel.add(startButton);
         setupPanel.add(Box.createVerticalGlue());
+        edtLabel.setForeground(Color.LIGHT_GRAY);
+        edtLabel.setAlignmentX(CENTER_ALIGNMENT);
+        setupPanel.add(edtLabel);
+        setupPanel.add(Box.createRigidArea(new Dimension(0, 8)));
         setupPanel.add(restartButton);
 
         add(setupPanel, BorderLayout.EAST);
@@ -117,28 +161,13 @@ public class BattleshipGame extends JFrame {
         setVisible(true);
     }
 
-    private void resetButtons(CellButton[][] buttons) {
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                buttons[r][c].setBackground(new Color(50, 90, 130));
-                buttons[r][c].setEnabled(false);
-            }
-        }
-    }
-
     private void resetFull() {
         playerBoard.clear();
         enemyBoard.clear();
+        enemyAI.cancel();
         removeEnemyBoardIfPresent();
 
-        resetButtons(playerButtons);
-        resetButtons(enemyButtons);
-
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                playerButtons[r][c].setEnabled(true);
-            }
-        }
+        playerView.setEnabled(true);
 
         placingShipsMode = false;
         shipsPlaced = false;
@@ -153,46 +182,17 @@ public class BattleshipGame extends JFrame {
         autoButton.setEnabled(true);
 
         statusLabel.setText("Розстановка: оберіть режим");
-        updateButtons();
+        updateBoards();
     }
 
-    private JPanel createBoardPanel(CellButton[][] buttons, String title, boolean isPlayer) {
+    private JPanel createBoardPanel(BoardComponent view, String title) {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(new Color(18, 35, 60));
         JLabel lbl = new JLabel(title, SwingConstants.CENTER);
         lbl.setFont(new Font("SansSerif", Font.BOLD, 16));
         lbl.setForeground(Color.WHITE);
         panel.add(lbl, BorderLayout.NORTH);
-        JPanel grid = new JPanel(new GridLayout(SIZE + 1, SIZE + 1));
-        grid.setBackground(new Color(10, 25, 45));
-
-        grid.add(new JLabel(""));
-        for (int c = 0; c < SIZE; c++) {
-            JLabel l = new JLabel(String.valueOf((char) ('A' + c)), SwingConstants.CENTER);
-            l.setForeground(Color.WHITE);
-            grid.add(l);
-        }
-        for (int r = 0; r < SIZE; r++) {
-            JLabel l = new JLabel(String.valueOf(r + 1), SwingConstants.CENTER);
-            l.setForeground(Color.WHITE);
-            grid.add(l);
-            for (int c = 0; c < SIZE; c++) {
-                CellButton btn = new CellButton(r, c);
-                btn.setPreferredSize(new Dimension(42, 42));
-                btn.setBorder(new LineBorder(Color.DARK_GRAY));
-                buttons[r][c] = btn;
-                if (isPlayer) {
-                    btn.addActionListener(e -> onPlayerBoardClick(btn));
-                    btn.setEnabled(true);
-                } else {
-                    btn.addActionListener(e -> onEnemyBoardClick(btn));
-                    btn.setEnabled(false);
-                }
-                grid.add(btn);
-            }
-        }
-
-        panel.add(grid, BorderLayout.CENTER);
+        panel.add(view, BorderLayout.CENTER);
         panel.setPreferredSize(new Dimension(450, 450));
         return panel;
     }
@@ -208,19 +208,15 @@ public class BattleshipGame extends JFrame {
         manualButton.setEnabled(false);
         autoButton.setEnabled(false);
         centerMessage.setText(" ");
-        statusLabel.setText("Ручна розстановка: ставте корабель розміром " + SHIP_SIZES[currentShipIndex]);
+        statusLabel.setText("Ручна розстановка: ставте корабель розміром " + shipSizes[currentShipIndex]);
 
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                playerButtons[r][c].setEnabled(true);
-            }
-        }
-        updateButtons();
+        playerView.setEnabled(true);
+        updateBoards();
     }
 
     private void doAutoPlacementPlayer() {
         playerBoard.clear();
-        playerBoard.placeShipsRandomly(SHIP_SIZES);
+        playerBoard.placeShipsRandomly(shipSizes);
         placingShipsMode = false;
         shipsPlaced = true;
         rotateButton.setEnabled(false);
@@ -229,15 +225,11 @@ public class BattleshipGame extends JFrame {
         autoButton.setEnabled(true);
         statusLabel.setText("Кораблі розставлені автоматично - натисніть Старт");
 
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                playerButtons[r][c].setEnabled(false);
-            }
-        }
-        updateButtons();
+        playerView.setEnabled(false);
+        updateBoards();
     }
 
-    private void onPlayerBoardClick(CellButton btn) {
+    private void onPlayerBoardClick(int row, int col) {
         if (!placingShipsMode && !shipsPlaced) {
             centerMessage.setText("Виберіть режим розстановки");
             centerMessage.setForeground(Color.RED);
@@ -249,45 +241,32 @@ public class BattleshipGame extends JFrame {
 
         if (!placingShipsMode) return;
         centerMessage.setText(" ");
-        int row = btn.row;
-        int col = btn.col;
-        int size = SHIP_SIZES[currentShipIndex];
-        if (!playerBoard.canPlace(row, col, size, horizontalPlacement)) {
+        int shipSize = shipSizes[currentShipIndex];
+        if (!playerBoard.canPlace(row, col, shipSize, horizontalPlacement)) {
             centerMessage.setText("Не можна поставити корабель! Змініть місце.");
             return;
         }
-        Ship s = new Ship(size);
-        for (int k = 0; k < size; k++) {
-            int r = row + (horizontalPlacement ? 0 : k);
-            int c = col + (horizontalPlacement ? k : 0);
-            playerBoard.grid[r][c] = Board.SHIP;
-            s.addCell(r, c);
-        }
-        playerBoard.ships.add(s);
+        playerBoard.placeShip(row, col, shipSize, horizontalPlacement);
         currentShipIndex++;
-        if (currentShipIndex >= SHIP_SIZES.length) {
+        if (currentShipIndex >= shipSizes.length) {
             placingShipsMode = false;
             shipsPlaced = true;
             rotateButton.setEnabled(false);
             startButton.setEnabled(true);
             statusLabel.setText("Розстановка завершена - натисніть Старт");
 
-            for (int r = 0; r < SIZE; r++) {
-                for (int c = 0; c < SIZE; c++) {
-                    playerButtons[r][c].setEnabled(false);
-                }
-            }
+            playerView.setEnabled(false);
 
         } else {
-            statusLabel.setText("Розставте корабель розміром " + SHIP_SIZES[currentShipIndex] + (horizontalPlacement ? " (горизонтально)" : " (вертикально)"));
+            statusLabel.setText("Розставте корабель розміром " + shipSizes[currentShipIndex] + (horizontalPlacement ? " (горизонтально)" : " (вертикально)"));
         }
-        updateButtons();
+        updateBoards();
     }
 
     private void toggleOrientation() {
         horizontalPlacement = !horizontalPlacement;
         if (placingShipsMode) {
-            statusLabel.setText("Розстановка: корабель розміром " + SHIP_SIZES[currentShipIndex] + (horizontalPlacement ? " (гориз)" : " (верт)"));
+            statusLabel.setText("Розстановка: корабель розміром " + shipSizes[currentShipIndex] + (horizontalPlacement ? " (гориз)" : " (верт)"));
         }
     }
 
@@ -298,18 +277,18 @@ public class BattleshipGame extends JFrame {
             boardsPanel.repaint();
         }
 
-        if (enemyBoard.ships.isEmpty()) enemyBoard.placeShipsRandomly(SHIP_SIZES);
+        if (enemyBoard.ships.isEmpty()) enemyBoard.placeShipsRandomly(shipSizes);
         manualButton.setEnabled(false);
         autoButton.setEnabled(false);
         rotateButton.setEnabled(false);
         startButton.setEnabled(false);
 
-        for (int r = 0; r < SIZE; r++) for (int c = 0; c < SIZE; c++) playerButtons[r][c].setEnabled(false);
+        playerView.setEnabled(false);
 
         setEnemyFieldEnabled(true);
         playerTurn = true;
         updateStatusTurn();
-        updateButtons();
+        updateBoards();
     }
 
     private boolean isEnemyPanelPresent() {
@@ -323,11 +302,10 @@ public class BattleshipGame extends JFrame {
         boardsPanel.repaint();
     }
 
-    private void setEnemyFieldEnabled(boolean val) {
-        for (int r = 0; r < SIZE; r++) for (int c = 0; c < SIZE; c++) enemyButtons[r][c].setEnabled(val);
+    private void setEnemyFieldEnabled(boolean val) { enemyView.setEnabled(val);
     }
 
-    private void onEnemyBoardClick(CellButton btn) {
+    private void onEnemyBoardClick(int r, int c) {
         if (!playerTurn) {
             return;
         }
@@ -336,17 +314,10 @@ public class BattleshipGame extends JFrame {
         if (!shipsPlaced) return;
         if (!playerTurn) return; // Цей рядок буде досягнутий тільки якщо playerTurn = true
 
-        int r = btn.row;
-        int c = btn.col;
-
-        if (enemyBoard.isShot(r, c)) {
-            btn.setEnabled(false);
-            return;
-        }
+        if (enemyBoard.isShot(r, c)) return;
 
         boolean hit = enemyBoard.shoot(r, c);
-
-        btn.setEnabled(false);
+        if (hit) sinkIfDone(enemyBoard, r, c);
 
         if (hit) {
             statusLabel.setText("Попадання! Ваш хід продовжується");
@@ -354,92 +325,67 @@ public class BattleshipGame extends JFrame {
             statusLabel.setText("Промах - хід ворога");
             playerTurn = false;
         }
-        updateButtons();
-        markSunkShip(enemyBoard, enemyButtons);
+        updateBoards();
         updateStatusTurn();
         if (enemyBoard.allShipsSunk()) {
             gameOver(true);
             return;
         }
 
-        if (!playerTurn) {
-            Timer t = new Timer(3000, e -> enemyMakeMove());
-            t.setRepeats(false);
-            t.start();
-        }
+        if (!playerTurn) enemyMakeMove();
     }
 
-    private void markSunkShip(Board board, CellButton[][] buttons) {
-        for (Ship s : board.ships) {
-            if (s.isSunk()) {
-                for (Point p : s.cells) {
-                    buttons[p.x][p.y].setBackground(Color.BLACK);
-                }
+    // Після потоплення клітини навколо корабля відкриваються
+    private void sinkIfDone(Board board, int r, int c) {
+        Ship s = board.shipAt(r, c);
+        if (s != null && s.isSunk()) board.markAround(s);
+    }
 
-                for (Point p : s.cells) {
-                    for (int dr = -1; dr <= 1; dr++) {
-                        for (int dc = -1; dc <= 1; dc++) {
-                            int nr = p.x + dr, nc = p.y + dc;
-                            if (nr >= 0 && nr < SIZE && nc >= 0 && nc < SIZE) {
-                                if (!board.isShot(nr, nc)) {
-                                    board.shot[nr][nc] = true;
-                                    buttons[nr][nc].setBackground(Color.WHITE);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
+    // Хід рахується у фоні по знімку поля, у потоці інтерфейсу лише застосовується
+    private void enemyMakeMove() { enemyAI.request(playerBoard, this::applyEnemyMove);
     }
 
-    private void enemyMakeMove() {
-        SwingUtilities.invokeLater(() -> {
-            Point p = playerBoard.nextAIMove();
-            if (p == null) {
-                outer:
-                for (int r = 0; r < SIZE; r++) {
-                    for (int c = 0; c < SIZE; c++) {
-                        if (!playerBoard.isShot(r, c)) {
-                            p = new Point(r, c);
-                            break outer;
-                        }
+    private void applyEnemyMove(Point p) {
+        if (p == null) {
+            outer:
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    if (!playerBoard.isShot(r, c)) {
+                        p = new Point(r, c);
+                        break outer;
                     }
                 }
-                if (p == null) return;
             }
+            if (p == null) return;
+        }
 
-            boolean hit = playerBoard.shoot(p.x, p.y);
+        boolean hit = playerBoard.shoot(p.x, p.y);
+        if (hit) sinkIfDone(playerBoard, p.x, p.y);
 
-            updateButtons();
-            markSunkShip(playerBoard, playerButtons);
-            updateStatusTurn();
+        updateBoards();
+        updateStatusTurn();
+        showEdtTime();
 
-            if (hit) {
-                playerBoard.lastHit = p;
-                statusLabel.setText("Ворог влучив! Він ходить ще.");
-                if (playerBoard.allShipsSunk()) {
-                    gameOver(false);
-                    return;
-                }
-                Timer t = new Timer(800, ev -> {
-                    ((Timer) ev.getSource()).stop();
-                    enemyMakeMove();
-                });
-                t.setRepeats(false);
-                t.start();
-            } else {
-                statusLabel.setText("Ворог промахнувся - ваш хід");
-                playerBoard.lastHit = null;
-                playerTurn = true;
-                updateButtons();
-                markSunkShip(playerBoard, playerButtons);
-                updateStatusTurn();
-                if (playerBoard.allShipsSunk()) {
-                    gameOver(false);
-                }
+        if (hit) {
+            statusLabel.setText("Ворог влучив! Він ходить ще.");
+            if (playerBoard.allShipsSunk()) {
+                // діалог блокує, тож показується вже після цього ходу
+                SwingUtilities.invokeLater(() -> gameOver(false));
+                return;
             }
-        });
+            enemyMakeMove();
+        } else {
+            statusLabel.setText("Ворог промахнувся - ваш хід");
+            playerTurn = true;
+            updateStatusTurn();
+        }
+    }
+
+    // Час, на який останній хід ворога зайняв потік інтерфейсу (попередній хід, бо поточний ще триває)
+    private void showEdtTime() {
+        Histogram h = enemyAI.blockedNanos();
+        if (h.count() == 0) return;
+        edtLabel.setText(String.format("EDT: %.2f мс, p99 %.2f мс", enemyAI.lastBlockedNanos() / 1e6, h.percentile(0.99) / 1e6));
     }
 
 
@@ -462,39 +408,8 @@ public class BattleshipGame extends JFrame {
         statusLabel.setText(msg);
     }
 
-    private void updateButtons() {
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                CellButton pb = playerButtons[r][c];
-                CellButton eb = enemyButtons[r][c];
-
-                int pv = playerBoard.getCell(r, c);
-                int ev = enemyBoard.getCell(r, c);
-
-                // Оновлення поля гравця
-                if (pb.getBackground().equals(Color.BLACK)) continue;
-                if (pv == Board.SHIP && !playerBoard.isShot(r, c)) pb.setBackground(new Color(0, 120, 160));
-                else if (playerBoard.isShot(r, c) && pv == Board.SHIP) pb.setBackground(Color.RED);
-                else if (playerBoard.isShot(r, c)) pb.setBackground(Color.WHITE);
-                else pb.setBackground(new Color(50, 90, 130));
-
-                // Оновлення поля ворога
-                if (eb.getBackground().equals(Color.BLACK)) continue;
-                if (enemyBoard.isShot(r, c)) {
-                    if (ev == Board.SHIP) eb.setBackground(Color.RED);
-                    else eb.setBackground(Color.WHITE);
-
-                    eb.setEnabled(false);
-
-                } else {
-                    eb.setBackground(new Color(50, 90, 130));
-                    if (playerTurn && shipsPlaced) {
-                        eb.setEnabled(true);
-                    } else {
-                        eb.setEnabled(false);
-                    }
-                }
-            }
-        }
+    private void updateBoards() {
+        playerView.refresh(playerChanges);
+        enemyView.refresh(enemyChanges);
     }
-}
\ No newline at end of file
+}
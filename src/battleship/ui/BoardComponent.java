@@ -0,0 +1,191 @@
+package battleship.ui;
+
+import battleship.core.Board;
+import battleship.core.CellChanges;
+import battleship.metrics.Histogram;
+import battleship.metrics.MetricsRegistry;
+import battleship.metrics.UiRefreshEvent;
+
+import javax.swing.JComponent;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+
+/**
+ * Поле гри одним компонентом: усі клітини малюються в paintComponent, клік переводиться
+ * в (рядок, стовпець) арифметично. Змінені клітини домальовуються в буфер (якщо він
+ * увімкнений) і перемальовуються лише їхні прямокутники.
+ */
+public class BoardComponent extends JComponent {
+    /** Обробник кліку по клітині. */
+    @FunctionalInterface
+    public interface CellClickHandler {
+        void cellClicked(int row, int col);
+    }
+
+    private static final Color BACKGROUND = new Color(10, 25, 45);
+    // менші клітини малюються без ліній сітки і підписів
+    private static final int MIN_GRID_CELL = 6;
+    private static final int MIN_LABEL_CELL = 14;
+    private static final Histogram REFRESH_NANOS = MetricsRegistry.global().timer("ui.refresh");
+
+    private final Board board;
+    private final boolean own;
+    private final int n;
+    private CellClickHandler handler;
+    private boolean buffered = true;
+    private BufferedImage buffer;
+
+    // геометрія для поточного розміру компонента
+    private int cell, left, top;
+
+    public BoardComponent(Board board, boolean own) {
+        this.board = board;
+        this.own = own;
+        this.n = board.getSize();
+        setOpaque(true);
+        setBackground(BACKGROUND);
+        setForeground(Color.WHITE);
+        setPreferredSize(new Dimension(450, 450));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (!isEnabled() || handler == null) return;
+                int r = rowAt(e.getY()), c = colAt(e.getX());
+                if (r >= 0 && c >= 0) handler.cellClicked(r, c);
+            }
+        });
+    }
+
+    public void setCellClickHandler(CellClickHandler handler) { this.handler = handler;
+    }
+
+    /** Малювати клітини через буфер (швидше для великих полів) чи напряму. */
+    public void setBuffered(boolean buffered) {
+        this.buffered = buffered;
+        buffer = null;
+        repaint();
+    }
+
+    // Кораблі ворога не показуються, поки в них не влучили
+    private Color cellColor(int r, int c) {
+        if (board.isSunk(r, c)) return Palette.SUNK;
+        boolean ship = board.getCell(r, c) == Board.SHIP;
+        if (board.isShot(r, c)) return ship ? Palette.HIT : Palette.MISS;
+        return own && ship ? Palette.SHIP : Palette.WATER;
+    }
+
+    /** Перемальовує лише клітини, що змінились з минулого виклику. */
+    public void refresh(CellChanges changes) {
+        UiRefreshEvent ev = new UiRefreshEvent();
+        boolean metrics = MetricsRegistry.enabled();
+        long start = metrics ? System.nanoTime() : 0;
+        boolean full = changes.isAll() || cell == 0;
+        int cells = changes.count();
+        ev.begin();
+        if (full) {
+            buffer = null;
+            repaint();
+        } else {
+            Graphics2D g = buffer != null ? buffer.createGraphics() : null;
+            for (int k = 0; k < changes.count(); k++) {
+                int i = changes.cell(k), r = i / n, c = i % n;
+                if (g != null) paintCell(g, r, c);
+                repaint(left + c * cell, top + r * cell, cell, cell);
+            }
+            if (g != null) g.dispose();
+        }
+        changes.clear();
+        ev.end();
+        if (metrics) REFRESH_NANOS.record(System.nanoTime() - start);
+        if (ev.shouldCommit()) {
+            ev.own = own;
+            ev.full = full;
+            ev.cells = cells;
+            ev.commit();
+        }
+    }
+
+    public int rowAt(int y) {
+        int r = cell == 0 || y < top ? -1 : (y - top) / cell;
+        return r < n ? r : -1;
+    }
+
+    public int colAt(int x) {
+        int c = cell == 0 || x < left ? -1 : (x - left) / cell;
+        return c < n ? c : -1;
+    }
+
+    private void layoutGrid() {
+        int w = getWidth(), h = getHeight();
+        int margin = Math.min(w, h) / (n + 1) >= MIN_LABEL_CELL ? 1 : 0;
+        int c = Math.max(1, Math.min(w, h) / (n + margin));
+        if (c != cell) buffer = null;
+        cell = c;
+        // поле по центру, підписи зліва і зверху
+        left = (w - cell * (n + margin)) / 2 + cell * margin;
+        top = (h - cell * (n + margin)) / 2 + cell * margin;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g0) {
+        layoutGrid();
+        Graphics2D g = (Graphics2D) g0;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (left >= cell && cell >= MIN_LABEL_CELL) paintLabels(g);
+
+        if (buffered) {
+            if (buffer == null) {
+                buffer = new BufferedImage(n * cell, n * cell, BufferedImage.TYPE_INT_RGB);
+                Graphics2D bg = buffer.createGraphics();
+                for (int r = 0; r < n; r++)
+                    for (int c = 0; c < n; c++) paintCell(bg, r, c);
+                bg.dispose();
+            }
+            g.drawImage(buffer, left, top, null);
+            return;
+        }
+        // без буфера - лише клітини, що перетинають область перемальовування
+        int r0 = Math.max(0, (clip.y - top) / cell), r1 = Math.min(n - 1, (clip.y + clip.height - top) / cell);
+        int c0 = Math.max(0, (clip.x - left) / cell), c1 = Math.min(n - 1, (clip.x + clip.width - left) / cell);
+        g.translate(left, top);
+        for (int r = r0; r <= r1; r++)
+            for (int c = c0; c <= c1; c++) paintCell(g, r, c);
+        g.translate(-left, -top);
+    }
+
+    // Координати відносно лівого верхнього кута сітки
+    private void paintCell(Graphics2D g, int r, int c) {
+        int x = c * cell, y = r * cell;
+        g.setColor(cellColor(r, c));
+        g.fillRect(x, y, cell, cell);
+        if (cell >= MIN_GRID_CELL) {
+            g.setColor(Palette.GRID);
+            g.drawRect(x, y, cell - 1, cell - 1);
+        }
+    }
+
+    private void paintLabels(Graphics2D g) {
+        g.setColor(getForeground());
+        g.setFont(getFont() != null ? getFont().deriveFont(Font.PLAIN, cell * 0.4f) : new Font("SansSerif", Font.PLAIN, cell * 2 / 5));
+        FontMetrics fm = g.getFontMetrics();
+        for (int c = 0; c < n; c++) {
+            String s = n <= 26 ? String.valueOf((char) ('A' + c)) : String.valueOf(c + 1);
+            g.drawString(s, left + c * cell + (cell - fm.stringWidth(s)) / 2, top - (cell - fm.getAscent()) / 2);
+        }
+        for (int r = 0; r < n; r++) {
+            String s = String.valueOf(r + 1);
+            g.drawString(s, left - cell + (cell - fm.stringWidth(s)) / 2, top + r * cell + (cell + fm.getAscent()) / 2);
+        }
+    }
+}
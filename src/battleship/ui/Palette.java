@@ -0,0 +1,16 @@
+package battleship.ui;
+
+import java.awt.Color;
+
+/** Кольори клітин поля; спільні екземпляри, тож їх можна порівнювати через ==. */
+final class Palette {
+    static final Color WATER = new Color(50, 90, 130);
+    static final Color SHIP = new Color(0, 120, 160);
+    static final Color HIT = Color.RED;
+    static final Color MISS = Color.WHITE;
+    static final Color SUNK = Color.BLACK;
+    static final Color GRID = Color.DARK_GRAY;
+
+    private Palette() {
+    }
+}
@@ -0,0 +1,119 @@
+package battleship.core;
+
+import battleship.sim.HeadlessGame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * EndgameSolver.solve проти прямого перебору всіх розстановок непотоплених кораблів на
+ * малих полях (n до 6) з фіксованими seed: випадкові постріли дають стани з промахами,
+ * непотопленими попаданнями і потопленими кораблями, перевіряються стани з 1-3 кораблями.
+ * Перебір не має спільного коду з розв'язувачем: кожен корабель - будь-яке положення,
+ * однакові кораблі - за зростанням положення, умови перевіряються клітина за клітиною.
+ */
+public final class EndgameSolverCheck {
+    public static void main(String[] args) {
+        String[] fleets = {"1,1,2", "1,2,2,3", "1,1,2,3", "2,2,3", "1,1,1,2,2"};
+        int[] sizes = {4, 5, 6};
+        EndgameSolver solver = new EndgameSolver(3, 10_000_000);
+        long states = 0, withHits = 0, withSunk = 0;
+        for (int n : sizes) {
+            for (String spec : fleets) {
+                int[] fleet = GameConfig.fleet(spec, n);
+                for (int g = 0; g < 6; g++) {
+                    long seed = SplitMixRandom.gameSeed(n * 1000L + spec.hashCode(), g);
+                    SplitMixRandom rnd = new SplitMixRandom(seed);
+                    Board b = new Board(n, fleet, rnd);
+                    try {
+                        b.placeShipsRandomly(fleet);
+                    } catch (IllegalStateException e) {
+                        continue;
+                    }
+                    for (int i = 0; i < n * n && !b.allShipsSunk(); i++) {
+                        int cell = rnd.nextInt(n * n);
+                        if (b.isShot(cell / n, cell % n)) continue;
+                        HeadlessGame.shoot(b, cell / n, cell % n);
+                        int left = b.remainingShipSizes().length;
+                        if (left == 0 || left > 3) continue;
+                        long[] expected = bruteForce(b);
+                        long[] actual = solver.solve(b);
+                        if (expected[n * n] == 0 ? actual != null : !Arrays.equals(expected, actual))
+                            throw new IllegalStateException("Розв'язувач розійшовся з перебором: n=" + n + " флот " + spec
+                                    + " seed " + seed + " після " + b.shotCount() + " пострілів: " + Arrays.toString(actual)
+                                    + " замість " + Arrays.toString(expected));
+                        states++;
+                        if (b.hitMask().cardinality() > b.sunkMask().cardinality()) withHits++;
+                        if (!b.sunkMask().isEmpty()) withSunk++;
+                    }
+                }
+            }
+        }
+        if (withHits == 0 || withSunk == 0) throw new IllegalStateException("Перевірка не дійшла до станів з попаданнями і потопленими кораблями");
+        System.out.println("EndgameSolverCheck: " + states + " states match brute force (" + withHits + " with open hits, "
+                + withSunk + " with sunk ships)");
+    }
+
+    // кількість розстановок, що накривають кожну клітину, загальна - в [n * n]
+    private static long[] bruteForce(Board b) {
+        int n = b.getSize();
+        boolean[] blocked = new boolean[n * n], open = new boolean[n * n];
+        for (int i = 0; i < n * n; i++) {
+            int r = i / n, c = i % n;
+            if (b.isShot(r, c) && !b.isHit(r, c)) blocked[i] = true;
+            if (b.isHit(r, c) && !b.isSunk(r, c)) open[i] = true;
+            if (b.isSunk(r, c))
+                for (int dr = -1; dr <= 1; dr++)
+                    for (int dc = -1; dc <= 1; dc++)
+                        if (r + dr >= 0 && r + dr < n && c + dc >= 0 && c + dc < n) blocked[(r + dr) * n + c + dc] = true;
+        }
+        int[] ships = b.remainingShipSizes().clone();
+        Arrays.sort(ships);
+        long[] counts = new long[n * n + 1];
+        place(n, ships, 0, -1, blocked, open, new ArrayList<>(), counts);
+        return counts;
+    }
+
+    private static void place(int n, int[] ships, int k, int minSlot, boolean[] blocked, boolean[] open,
+                              List<int[]> placed, long[] counts) {
+        if (k == ships.length) {
+            for (int i = 0; i < n * n; i++) {
+                if (!open[i]) continue;
+                boolean covered = false;
+                for (int[] cells : placed) for (int c : cells) covered |= c == i;
+                if (!covered) return;
+            }
+            counts[n * n]++;
+            for (int[] cells : placed) for (int c : cells) counts[c]++;
+            return;
+        }
+        int size = ships[k];
+        for (int slot = 0; slot < 2 * n * n; slot++) {
+            // однакові кораблі взаємозамінні: кожна множина положень - один раз
+            if (k > 0 && ships[k - 1] == size && slot <= minSlot) continue;
+            int r = slot / 2 / n, c = slot / 2 % n;
+            boolean horiz = slot % 2 == 0;
+            if (size == 1 && !horiz) continue;
+            if (horiz ? c + size > n : r + size > n) continue;
+            int[] cells = new int[size];
+            boolean ok = true;
+            int hits = 0;
+            for (int j = 0; j < size && ok; j++) {
+                cells[j] = horiz ? r * n + c + j : (r + j) * n + c;
+                if (blocked[cells[j]]) ok = false;
+                if (open[cells[j]]) hits++;
+                for (int[] other : placed) for (int o : other) if (touches(cells[j], o, n)) ok = false;
+            }
+            // корабель з одних попадань уже був би потоплений
+            if (!ok || hits == size) continue;
+            placed.add(cells);
+            place(n, ships, k + 1, slot, blocked, open, placed, counts);
+            placed.remove(placed.size() - 1);
+        }
+    }
+
+    private static boolean touches(int a, int b, int n) {
+        return Math.abs(a / n - b / n) <= 1 && Math.abs(a % n - b % n) <= 1;
+    }
+}
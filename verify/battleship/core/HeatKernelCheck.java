@@ -0,0 +1,51 @@
+package battleship.core;
+
+import java.util.Arrays;
+
+/**
+ * Векторне ядро HeatKernel проти скалярного на випадкових масках мертвих клітин і
+ * попадань з фіксованими seed. Розміри поля - усі від 1 до 40 і кілька більших: ширина
+ * рядка n + 1 і кількість початків положень часто не кратні довжині вектора, тож
+ * перевіряються і скалярні хвости векторного ядра.
+ */
+public final class HeatKernelCheck {
+    public static void main(String[] args) {
+        if (!HeatKernel.vectorAvailable())
+            throw new IllegalStateException("Векторне ядро недоступне: потрібні --add-modules jdk.incubator.vector і src-vector на classpath");
+        HeatKernel scalar = HeatKernel.scalar(), vector = HeatKernel.vector();
+        int[] sizes = new int[45];
+        for (int n = 1; n <= 40; n++) sizes[n - 1] = n;
+        System.arraycopy(new int[]{63, 64, 65, 100, 127}, 0, sizes, 40, 5);
+        double[] densities = {0, 0.1, 0.3, 0.6, 0.9, 1};
+        long cases = 0;
+        for (int n : sizes) {
+            SplitMixRandom rnd = new SplitMixRandom(SplitMixRandom.gameSeed(0x4EA7, n));
+            for (double density : densities) {
+                for (int k = 0; k < 8; k++) {
+                    BitGrid dead = new BitGrid(n), open = new BitGrid(n);
+                    for (int i = 0; i < n * n; i++) if (rnd.nextDouble() < density) dead.set(i);
+                    // у половині випадків - кілька попадань, інколи й на мертвих клітинах
+                    if ((k & 1) == 1) {
+                        int hits = 1 + rnd.nextInt(3);
+                        for (int h = 0; h < hits; h++) {
+                            int i = rnd.nextInt(n * n);
+                            if (k == 7) dead.set(i);
+                            else dead.clear(i);
+                            open.set(i);
+                        }
+                    }
+                    // флот з повторами розмірів, часом з кораблями, довшими за поле
+                    int[] remaining = new int[1 + rnd.nextInt(6)];
+                    for (int s = 0; s < remaining.length; s++) remaining[s] = 1 + rnd.nextInt(Math.min(n + 1, 7));
+                    int[] expected = scalar.heat(n, dead, open, remaining);
+                    int[] actual = vector.heat(n, dead, open, remaining);
+                    if (!Arrays.equals(expected, actual))
+                        throw new IllegalStateException("Векторне ядро розійшлося зі скалярним: n=" + n + " щільність " + density
+                                + " випадок " + k + " флот " + Arrays.toString(remaining));
+                    cases++;
+                }
+            }
+        }
+        System.out.println("HeatKernelCheck: " + cases + " random masks match the scalar kernel");
+    }
+}
@@ -0,0 +1,59 @@
+package battleship.core;
+
+import battleship.sim.HeadlessGame;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+/**
+ * Інкрементальна карта Board.nextAIMove проти повного перерахунку HeatMap.full після
+ * кожного пострілу в партіях з фіксованими seed: ходи AI чергуються з випадковими,
+ * щоб траплялися і режим добивання, і промахи далеко від попадань.
+ */
+public final class HeatMapCheck {
+    public static void main(String[] args) {
+        String[] fleets = {"standard", "scaled", "long", "1,1,1,2", "5,4,3,3,2"};
+        int[] sizes = {5, 7, 10, 13, 16};
+        long states = 0;
+        for (int n : sizes) {
+            for (String spec : fleets) {
+                int[] fleet = GameConfig.fleet(spec, n);
+                try {
+                    new GameConfig(n, fleet);
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                for (int g = 0; g < 10; g++) states += play(n, fleet, SplitMixRandom.gameSeed(n * 1000L + spec.hashCode(), g));
+            }
+        }
+        System.out.println("HeatMapCheck: " + states + " states match HeatMap.full");
+    }
+
+    private static long play(int n, int[] fleet, long seed) {
+        SplitMixRandom rnd = new SplitMixRandom(seed);
+        Board b = new Board(n, fleet, rnd);
+        b.placeShipsRandomly(fleet);
+        long states = 0;
+        while (!b.allShipsSunk()) {
+            Point p = b.nextAIMove();
+            if (rnd.nextBoolean()) {
+                // випадкова непрострілена клітина
+                int free = n * n - b.shotMask().cardinality(), k = rnd.nextInt(free);
+                for (int i = 0; i < n * n; i++) {
+                    if (!b.isShot(i / n, i % n) && k-- == 0) {
+                        p = new Point(i / n, i % n);
+                        break;
+                    }
+                }
+            }
+            HeadlessGame.shoot(b, p.x, p.y);
+            if (b.allShipsSunk()) break;
+            int[] expected = HeatMap.full(b);
+            if (!Arrays.equals(b.heatMap.weights(), expected))
+                throw new IllegalStateException("Карта розійшлася з повним перерахунком: n=" + n + " флот "
+                        + Arrays.toString(fleet) + " seed " + seed + " після " + b.shotCount() + " пострілів");
+            states++;
+        }
+        return states;
+    }
+}
@@ -0,0 +1,78 @@
+package battleship.core;
+
+import battleship.sim.HeadlessGame;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * MonteCarloSampler проти точного EndgameSolver у малих ендшпілях з фіксованими seed.
+ * Вибірка розставляє кораблі послідовно і не рівноймовірна, тож частоти порівнюються
+ * лише на краях: клітини, яких не накриває жодна узгоджена розстановка, не мають ваги,
+ * а клітини, які накривають усі, накриті в кожній прийнятій вибірці. Корабель з одних
+ * попадань порушує друге правило: інший корабель тоді лишає попадання, яке мав накрити.
+ */
+public final class MonteCarloSamplerCheck {
+    public static void main(String[] args) {
+        String[] fleets = {"1,1,2", "1,2,3", "1,1,1,2", "2,2,3"};
+        int[] sizes = {5, 6};
+        MonteCarloSampler sampler = new MonteCarloSampler(50_000, 60_000_000_000L, 4096, Integer.MAX_VALUE, ForkJoinPool.commonPool());
+        EndgameSolver solver = new EndgameSolver(3, 1_000_000);
+        long states = 0;
+        for (int n : sizes) {
+            for (String spec : fleets) {
+                int[] fleet = GameConfig.fleet(spec, n);
+                for (int g = 0; g < 4; g++) {
+                    long seed = SplitMixRandom.gameSeed(n * 1000L + spec.hashCode(), g);
+                    SplitMixRandom rnd = new SplitMixRandom(seed);
+                    Board b = new Board(n, fleet, rnd);
+                    b.placeShipsRandomly(fleet);
+                    // випадкові постріли; перевіряються перші ендшпілі з непотопленим попаданням
+                    int[] order = shuffled(n * n, rnd);
+                    int checked = 0;
+                    for (int i = 0; i < order.length && !b.allShipsSunk() && checked < 3; i++) {
+                        if (b.isShot(order[i] / n, order[i] % n)) continue;
+                        HeadlessGame.shoot(b, order[i] / n, order[i] % n);
+                        if (b.allShipsSunk() || !hasOpenHit(b)) continue;
+                        long[] exact = solver.solve(b);
+                        if (exact == null) continue;
+                        compare(b, sampler.estimate(b), sampler.lastAccepted(), exact, seed);
+                        checked++;
+                    }
+                    states += checked;
+                }
+            }
+        }
+        if (states == 0) throw new IllegalStateException("Жодного ендшпілю для порівняння");
+        System.out.println("MonteCarloSamplerCheck: " + states + " endgames agree with EndgameSolver");
+    }
+
+    private static void compare(Board b, int[] est, int accepted, long[] exact, long seed) {
+        int n = b.n;
+        String where = ": n=" + n + " seed " + seed + " після " + b.shotCount() + " пострілів";
+        if (est == null) throw new IllegalStateException("Вибірка не знайшла жодної розстановки" + where);
+        long total = exact[n * n];
+        for (int i = 0; i < n * n; i++) {
+            if (exact[i] == 0 && est[i] != 0)
+                throw new IllegalStateException("Вибірка накриває клітину " + i + ", якої не накриває жодна розстановка" + where);
+            if (exact[i] == total && est[i] != accepted)
+                throw new IllegalStateException("Вибірка не завжди накриває клітину " + i + ", яку накривають усі розстановки" + where);
+        }
+    }
+
+    private static boolean hasOpenHit(Board b) {
+        BitGrid hit = b.hitMask(), sunk = b.sunkMask();
+        for (int i = hit.nextSetBit(0); i >= 0; i = hit.nextSetBit(i + 1)) if (!sunk.get(i)) return true;
+        return false;
+    }
+
+    private static int[] shuffled(int cells, SplitMixRandom rnd) {
+        int[] order = new int[cells];
+        for (int i = 0; i < cells; i++) order[i] = i;
+        for (int i = cells - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1), t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return order;
+    }
+}
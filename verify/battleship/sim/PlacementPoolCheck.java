@@ -0,0 +1,85 @@
+package battleship.sim;
+
+import battleship.core.Board;
+import battleship.core.FleetPlacer;
+import battleship.core.GameConfig;
+import battleship.core.LayoutCodec;
+import battleship.core.SplitMixRandom;
+import battleship.core.Symmetry;
+
+import java.util.Arrays;
+
+/**
+ * Симетричні варіанти розстановок (LayoutCodec.transform, як їх додає PlacementPool) на полях
+ * різного розміру з фіксованими seed: кожен варіант розкладається на нове поле через canPlace,
+ * тож корабель за межами поля або дотик до сусіда - помилка. Клітини варіанта мають збігатися
+ * з образом клітин вихідної розстановки, а повторне кодування - давати той самий варіант.
+ * Наприкінці те саме для розстановок, виданих справжнім симетричним пулом.
+ */
+public final class PlacementPoolCheck {
+    public static void main(String[] args) {
+        int[] sizes = {6, 7, 10, 11, 20, 33};
+        String[] fleets = {"standard", "scaled", "long", "1x6,2x2"};
+        long layouts = 0, variants = 0;
+        for (int n : sizes) {
+            for (String spec : fleets) {
+                int[] fleet = GameConfig.fleet(spec, n);
+                LayoutCodec codec = new LayoutCodec(n, fleet);
+                for (int g = 0; g < 40; g++) {
+                    long seed = SplitMixRandom.gameSeed(n * 1000L + spec.hashCode(), g);
+                    Board b = new Board(n, fleet, new SplitMixRandom(seed));
+                    try {
+                        b.placeShipsRandomly(fleet);
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        // флот не вміщається на полі або розстановку не знайдено
+                        continue;
+                    }
+                    long[] layout = codec.encode(b);
+                    for (int t = 0; t < Symmetry.COUNT; t++) {
+                        String where = "n=" + n + " флот " + spec + " seed " + seed + " симетрія " + t;
+                        long[] v = codec.transform(layout, t);
+                        Board target = decode(codec, v, where);
+                        for (int i = 0; i < n * n; i++) {
+                            int r = i / n, c = i % n, j = Symmetry.cell(t, i, n);
+                            if (b.getCell(r, c) != target.getCell(j / n, j % n))
+                                throw new IllegalStateException("Варіант не є образом розстановки: " + where + ", клітина " + i);
+                        }
+                        if (!Arrays.equals(codec.encode(target), v))
+                            throw new IllegalStateException("Варіант кодується інакше: " + where);
+                        variants++;
+                    }
+                    layouts++;
+                }
+            }
+        }
+        if (layouts == 0) throw new IllegalStateException("Не вдалося розставити жодного флоту");
+
+        long pooled = 0;
+        int[] fleet = GameConfig.STANDARD_FLEET;
+        try (PlacementPool pool = new PlacementPool(10, fleet, 256, true, 42)) {
+            for (int i = 0; i < 20_000; i++) {
+                decode(pool.codec(), pool.take(), "пул 10x10, розстановка " + i);
+                pooled++;
+            }
+            if (pool.variants() == 0) throw new IllegalStateException("Симетричний пул не додав жодного варіанта: " + pool.metrics());
+        }
+        System.out.println("PlacementPoolCheck: " + variants + " symmetric variants of " + layouts
+                + " layouts and " + pooled + " pooled layouts are legal");
+    }
+
+    private static Board decode(LayoutCodec codec, long[] layout, String where) {
+        int n = codec.getSize();
+        int[] fleet = codec.getFleet();
+        Board b = new Board(n, fleet, new SplitMixRandom(0));
+        for (int i = 0; i < fleet.length; i++) {
+            int slot = codec.slot(layout, i);
+            int r = FleetPlacer.slotRow(slot, n), c = FleetPlacer.slotCol(slot, n);
+            boolean horiz = FleetPlacer.slotHoriz(slot);
+            if (!b.canPlace(r, c, fleet[i], horiz))
+                throw new IllegalStateException("Недопустимий корабель " + i + " (" + r + "," + c + " розмір " + fleet[i]
+                        + (horiz ? " гор." : " верт.") + "): " + where);
+            b.placeShip(r, c, fleet[i], horiz);
+        }
+        return b;
+    }
+}